@@ -60,4 +60,9 @@ public @interface Field {
 	boolean in() default false;
 
 	String[] copyTo() default {};
+
+	/**
+	 * Whether the field value routes the document to its shard, see {@link Id} for the document id.
+	 */
+	boolean routing() default false;
 }
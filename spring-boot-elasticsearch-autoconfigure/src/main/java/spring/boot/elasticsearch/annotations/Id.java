@@ -0,0 +1,18 @@
+package spring.boot.elasticsearch.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ *
+ * Marks the field holding the document id, written documents are indexed under this id instead
+ * of an auto generated one so that a retried write replaces the document rather than duplicating it.
+ *
+ * @author OAK
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+@Inherited
+public @interface Id {
+}
@@ -1,20 +1,52 @@
 package spring.boot.elasticsearch.autoconfigure;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHost;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.nio.reactor.IOReactorConfig;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import spring.boot.elasticsearch.bulk.AdaptiveBulkBatcher;
+import spring.boot.elasticsearch.bulk.BulkEncoder;
+import spring.boot.elasticsearch.bulk.ElasticsearchBulkPipeline;
+import spring.boot.elasticsearch.bulk.UpdateBatcher;
+import spring.boot.elasticsearch.cache.IndexResolver;
+import spring.boot.elasticsearch.cache.SearchCoalescer;
+import spring.boot.elasticsearch.cache.SearchResultCache;
+import spring.boot.elasticsearch.config.ElasticsearchBulkProperties;
+import spring.boot.elasticsearch.config.ElasticsearchCacheProperties;
+import spring.boot.elasticsearch.config.ElasticsearchLoggingProperties;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
+import spring.boot.elasticsearch.mapper.FastjsonHitMapper;
+import spring.boot.elasticsearch.mapper.HitMapper;
+import spring.boot.elasticsearch.mapper.JacksonHitMapper;
+import spring.boot.elasticsearch.metrics.ElasticsearchMetrics;
+import spring.boot.elasticsearch.metrics.MicrometerElasticsearchMetrics;
+import spring.boot.elasticsearch.metrics.SimpleElasticsearchMetrics;
+import spring.boot.elasticsearch.service.AsyncElasticsearchService;
+import spring.boot.elasticsearch.service.ElasticsearchService;
+import spring.boot.elasticsearch.service.impl.AsyncElasticsearchServiceImpl;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for Boot Elasticsearch REST clients.
@@ -23,9 +55,13 @@ import org.springframework.context.annotation.Configuration;
  * @since 2019/06/24 19:22:00 PM.
  * @version  1.0
  */
+@Slf4j
 @Configuration
 @ConditionalOnClass(RestClient.class)
-@EnableConfigurationProperties(RestClientProperties.class)
+@EnableConfigurationProperties({RestClientProperties.class, ElasticsearchProperties.class, ElasticsearchRequestProperties.class,
+        ElasticsearchSearchProperties.class, ElasticsearchBulkProperties.class, ElasticsearchCacheProperties.class,
+        ElasticsearchLoggingProperties.class})
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
 public class AutoConfiguration {
 
     @Bean
@@ -40,6 +76,86 @@ public class AutoConfiguration {
         return new RestHighLevelClient(restClientBuilder);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public HitMapper hitMapper() {
+        return new FastjsonHitMapper();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ElasticsearchMetrics elasticsearchMetrics() {
+        return new SimpleElasticsearchMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(ElasticsearchService.class)
+    public AsyncElasticsearchService asyncElasticsearchService(RestHighLevelClient restHighLevelClient,
+                                                               ElasticsearchProperties properties,
+                                                               ElasticsearchRequestProperties requestProperties,
+                                                               ElasticsearchSearchProperties searchProperties,
+                                                               HitMapper hitMapper,
+                                                               ObjectProvider<BulkEncoder> bulkEncoder,
+                                                               ObjectProvider<SearchResultCache> resultCache) {
+        return new AsyncElasticsearchServiceImpl(restHighLevelClient, properties, requestProperties, searchProperties, hitMapper,
+                bulkEncoder.getIfAvailable(), resultCache.getIfAvailable());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.bulk", name = "enabled", havingValue = "true")
+    public ElasticsearchBulkPipeline elasticsearchBulkPipeline(RestHighLevelClient restHighLevelClient,
+                                                               ElasticsearchBulkProperties properties,
+                                                               ObjectProvider<BulkEncoder> bulkEncoder,
+                                                               ObjectProvider<SearchResultCache> resultCache) {
+        return new ElasticsearchBulkPipeline(restHighLevelClient, properties, bulkEncoder.getIfAvailable(),
+                resultCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.bulk.encoder", name = "enabled", havingValue = "true")
+    public BulkEncoder bulkEncoder(ElasticsearchBulkProperties properties) {
+        return new BulkEncoder(properties);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.bulk.adaptive", name = "enabled", havingValue = "true")
+    public AdaptiveBulkBatcher adaptiveBulkBatcher(ElasticsearchBulkProperties properties) {
+        return new AdaptiveBulkBatcher(properties);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.bulk.updates", name = "enabled", havingValue = "true")
+    public UpdateBatcher updateBatcher(ElasticsearchBulkProperties properties, ElasticsearchRequestProperties requestProperties) {
+        return new UpdateBatcher(properties, requestProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.cache", name = "enabled", havingValue = "true")
+    public SearchResultCache searchResultCache(ElasticsearchCacheProperties properties, RestHighLevelClient restHighLevelClient) {
+        return new SearchResultCache(properties, new IndexResolver(restHighLevelClient.getLowLevelClient(), properties.getTtl()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.search", name = "coalesce", havingValue = "true")
+    public SearchCoalescer searchCoalescer(ElasticsearchSearchProperties properties) {
+        return new SearchCoalescer(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.elasticsearch", name = "initialize-indices", havingValue = "true")
+    public DocumentIndexInitializer documentIndexInitializer(BeanFactory beanFactory, RestHighLevelClient restHighLevelClient,
+                                                             ElasticsearchProperties properties) {
+        return new DocumentIndexInitializer(beanFactory, restHighLevelClient, properties);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public RestClientBuilder restClientBuilder(RestClientProperties properties,
@@ -54,28 +170,67 @@ public class AutoConfiguration {
                     .to(requestConfigBuilder::setConnectTimeout);
             map.from(properties::getReadTimeout).whenNonNull().asInt(Duration::toMillis)
                     .to(requestConfigBuilder::setSocketTimeout);
+            map.from(properties::getConnectionRequestTimeout).whenNonNull().asInt(Duration::toMillis)
+                    .to(requestConfigBuilder::setConnectionRequestTimeout);
             return requestConfigBuilder;
         });
 
-        map.from(properties::getMaxConnPerRoute).whenHasText().to((maxConnPerRoute) -> {
-//            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-//            Credentials credentials = new UsernamePasswordCredentials(properties.getUsername(),
-//                    properties.getPassword());
-//            credentialsProvider.setCredentials(AuthScope.ANY, credentials);
-            builder.setHttpClientConfigCallback(httpClientConfigCallback -> {
-                map.from(properties::getMaxConnTotal).whenNonNull()
-                        .to(httpClientConfigCallback::setMaxConnTotal);
-                map.from(properties::getMaxConnTotal).whenNonNull()
-                        .to(httpClientConfigCallback::setMaxConnPerRoute);
-//                httpClientConfigCallback.setDefaultCredentialsProvider(credentialsProvider);
-
-                httpClientConfigCallback.setDefaultIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(10).build());
-
-                return httpClientConfigCallback;
-            });
+        builder.setHttpClientConfigCallback(httpClientConfigCallback -> {
+            map.from(properties::getMaxConnTotal).whenNonNull()
+                    .to(httpClientConfigCallback::setMaxConnTotal);
+            map.from(properties::getMaxConnPerRoute).whenNonNull()
+                    .to(httpClientConfigCallback::setMaxConnPerRoute);
+            map.from(properties::getConnectionTimeToLive).whenNonNull().as(Duration::toMillis)
+                    .to(ttl -> httpClientConfigCallback.setConnectionTimeToLive(ttl, TimeUnit.MILLISECONDS));
+            map.from(properties::getKeepAlive).whenNonNull().as(Duration::toMillis)
+                    .to(keepAlive -> httpClientConfigCallback.setKeepAliveStrategy((response, context) -> {
+                        long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+                    }));
+
+            IOReactorConfig.Builder ioReactorConfig = IOReactorConfig.custom();
+            map.from(properties::getIoThreadCount).whenNonNull().to(ioReactorConfig::setIoThreadCount);
+            map.from(properties::getTcpNoDelay).whenNonNull().to(ioReactorConfig::setTcpNoDelay);
+            map.from(properties::getSendBufferSize).whenNonNull().asInt(DataSize::toBytes)
+                    .to(ioReactorConfig::setSndBufSize);
+            map.from(properties::getReceiveBufferSize).whenNonNull().asInt(DataSize::toBytes)
+                    .to(ioReactorConfig::setRcvBufSize);
+            httpClientConfigCallback.setDefaultIOReactorConfig(ioReactorConfig.build());
+            return httpClientConfigCallback;
         });
-       // builderCustomizers.getIfAvailable().customize(builder);
+
+        builderCustomizers.orderedStream().forEach((customizer) -> customizer.customize(builder));
+
+        log.info("Elasticsearch rest client {} io threads {}, max connections {} total {} per route, connection ttl {}, keep alive {}",
+                properties.getUris(), properties.getIoThreadCount(), properties.getMaxConnTotal(), properties.getMaxConnPerRoute(),
+                properties.getConnectionTimeToLive(), properties.getKeepAlive());
         return builder;
     }
 
-}
\ No newline at end of file
+    @Configuration
+    @ConditionalOnClass(ObjectMapper.class)
+    @ConditionalOnProperty(prefix = "spring.boot.elasticsearch.search", name = "hit-mapper", havingValue = "jackson")
+    static class JacksonHitMapperConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public HitMapper jacksonHitMapper(ObjectProvider<ObjectMapper> objectMapper) {
+            return new JacksonHitMapper(objectMapper.getIfAvailable(ObjectMapper::new));
+        }
+
+    }
+
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ElasticsearchMetrics micrometerElasticsearchMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerElasticsearchMetrics(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package spring.boot.elasticsearch.autoconfigure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import spring.boot.elasticsearch.annotations.Document;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.common.IndexMapping;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+
+/**
+ * Creates the missing indices of the {@link Document} annotated classes found in the
+ * auto-configuration packages once every singleton is instantiated. Every index is checked
+ * and created concurrently, a failed index is logged and does not stop the startup. The startup
+ * waits at most the configured initialize timeout, slower creations finish in background.
+ *
+ * @author OAK
+ * @since 2019/06/24 19:22:00 PM.
+ * @version  1.0
+ */
+@Slf4j
+public class DocumentIndexInitializer implements SmartInitializingSingleton {
+
+    private final BeanFactory beanFactory;
+
+    private final RestHighLevelClient restClient;
+
+    private final ElasticsearchProperties properties;
+
+    public DocumentIndexInitializer(BeanFactory beanFactory, RestHighLevelClient restClient, ElasticsearchProperties properties) {
+        this.beanFactory = beanFactory;
+        this.restClient = restClient;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Class<?> documentClass : scan()) {
+            IndexMapping indexMapping;
+            try {
+                indexMapping = IndexMapping.of(documentClass);
+            } catch (RuntimeException e) {
+                log.error("Elasticsearch document {} mapping find a fail, {}", documentClass.getName(), e);
+                continue;
+            }
+            if (indexMapping.getDocument().createIndex()) {
+                futures.add(initialize(documentClass, indexMapping));
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(properties.getInitializeTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Elasticsearch indices not initialized within {}, the remaining indices are created in background",
+                    properties.getInitializeTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Elasticsearch indices initialize find a fail, {}", e.getCause());
+        }
+    }
+
+    /**
+     * Find the {@link Document} annotated classes of the auto-configuration packages.
+     */
+    private List<Class<?>> scan() {
+        List<Class<?>> documentClasses = new ArrayList<>();
+        if (!AutoConfigurationPackages.has(beanFactory)) {
+            return documentClasses;
+        }
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Document.class));
+        for (String basePackage : AutoConfigurationPackages.get(beanFactory)) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                documentClasses.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), ClassUtils.getDefaultClassLoader()));
+            }
+        }
+        return documentClasses;
+    }
+
+    private CompletableFuture<Void> initialize(Class<?> documentClass, IndexMapping indexMapping) {
+        String index = indexMapping.getIndex();
+        CompletableFuture<Boolean> exists = new CompletableFuture<>();
+        restClient.indices().existsAsync(ElasticsearchRequests.exists(index), RequestOptions.DEFAULT,
+                ActionListener.wrap(exists::complete, exists::completeExceptionally));
+        return exists.thenCompose(found -> {
+            if (found) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            CompletableFuture<CreateIndexResponse> created = new CompletableFuture<>();
+            restClient.indices().createAsync(ElasticsearchRequests.create(properties, documentClass), RequestOptions.DEFAULT,
+                    ActionListener.wrap(created::complete, created::completeExceptionally));
+            return created.<Void>thenApply(response -> {
+                log.info("Create elasticsearch index {} of document {} finish, acknowledged is {}", index,
+                        documentClass.getName(), response.isAcknowledged());
+                return null;
+            });
+        }).handle((ignored, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof ElasticsearchStatusException && cause.getMessage() != null
+                    && cause.getMessage().contains("resource_already_exists_exception")) {
+                log.info("Elasticsearch index {} of document {} was created concurrently", index, documentClass.getName());
+            } else if (cause != null) {
+                log.error("Create elasticsearch index {} of document {} found fail, {}", index, documentClass.getName(), cause);
+            }
+            return null;
+        });
+    }
+
+}
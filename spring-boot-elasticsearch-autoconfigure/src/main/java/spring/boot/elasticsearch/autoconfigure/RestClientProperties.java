@@ -2,6 +2,8 @@ package spring.boot.elasticsearch.autoconfigure;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -43,14 +45,50 @@ public class RestClientProperties {
      */
     private Duration readTimeout = Duration.ofSeconds(30);
 
+    /**
+     * Timeout when requesting a connection from the connection pool.
+     */
+    private Duration connectionRequestTimeout;
+
     /**
      * Max connection total.
      */
-    private Integer maxConnTotal;
+    private Integer maxConnTotal = 100;
 
     /**
      * Max connection per route.
      */
-    private Integer maxConnPerRoute;
+    private Integer maxConnPerRoute = 100;
+
+    /**
+     * Number of IO reactor dispatch threads, defaults to the available processors.
+     */
+    private Integer ioThreadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Total time to live of pooled connections, never expired when not set.
+     */
+    private Duration connectionTimeToLive;
+
+    /**
+     * Max idle time a pooled connection is kept alive, the server Keep-Alive header is honoured
+     * when shorter. Kept alive indefinitely when not set.
+     */
+    private Duration keepAlive;
+
+    /**
+     * Whether to disable Nagle's algorithm on the socket.
+     */
+    private Boolean tcpNoDelay = true;
+
+    /**
+     * Socket send buffer size, the system default when not set.
+     */
+    private DataSize sendBufferSize;
+
+    /**
+     * Socket receive buffer size, the system default when not set.
+     */
+    private DataSize receiveBufferSize;
 
 }
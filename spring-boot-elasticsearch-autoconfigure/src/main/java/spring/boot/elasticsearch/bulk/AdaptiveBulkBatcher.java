@@ -0,0 +1,228 @@
+package spring.boot.elasticsearch.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import spring.boot.elasticsearch.config.ElasticsearchBulkProperties;
+import spring.boot.elasticsearch.constants.ElasticsearchConstants;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ *
+ * Adaptive bulk batcher, splits large bulk requests into sub-batches and sends them concurrently.
+ * Sub-batch documents, bytes and concurrency follow an AIMD controller shared by every caller:
+ * they grow additively while batches finish under the target latency and without rejections,
+ * shrink proportionally when batches run slow and are halved on rejections. A sub-batch that
+ * fails as a whole reports its items as failed without affecting the outcomes of the others.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class AdaptiveBulkBatcher {
+
+    /**
+     * Elasticsearch adaptive batching properties instance.
+     */
+    private final ElasticsearchBulkProperties.Adaptive properties;
+
+    /**
+     * Sub-batch executor.
+     */
+    private final ExecutorService executor;
+
+    private final long minBytes;
+
+    private final long maxBytes;
+
+    private final long targetMillis;
+
+    /**
+     * Current documents per sub-batch.
+     */
+    private int actions;
+
+    /**
+     * Current bytes per sub-batch.
+     */
+    private long bytes;
+
+    /**
+     * Current sub-batches in flight.
+     */
+    private int concurrency = 1;
+
+    public AdaptiveBulkBatcher(ElasticsearchBulkProperties properties) {
+        this.properties = properties.getAdaptive();
+        this.minBytes = this.properties.getMinSize().toBytes();
+        this.maxBytes = this.properties.getMaxSize().toBytes();
+        this.targetMillis = this.properties.getTargetLatency().toMillis();
+        this.actions = clamp(ElasticsearchConstants.THRESHOLD, this.properties.getMinActions(), this.properties.getMaxActions());
+        this.bytes = Math.max(minBytes, Math.min(maxBytes, properties.getSize().toBytes()));
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.properties.getMaxConcurrency()),
+                new CustomizableThreadFactory("elasticsearch-bulk-"));
+    }
+
+    /**
+     * Send the bulk request through sender, split into adaptively sized sub-batches when it is larger
+     * than the current sub-batch size.
+     * @param bulkRequest whole bulk request.
+     * @param sender sends one sub-batch and reports its item outcomes.
+     * @return merged item outcomes, positions refer to the whole bulk request. Items of a sub-batch that
+     * failed as a whole, or that were not sent because the caller was interrupted, are reported as failed.
+     */
+    public BulkResult execute(BulkRequest bulkRequest, Function<BulkRequest, BulkResult> sender) {
+        if (bulkRequest.numberOfActions() <= actions() && bulkRequest.estimatedSizeInBytes() <= bytes()) {
+            return feedback(sender.apply(bulkRequest));
+        }
+        List<DocWriteRequest<?>> requests = bulkRequest.requests();
+        CompletionService<Slice> completion = new ExecutorCompletionService<>(executor);
+        List<Slice> slices = new ArrayList<>();
+        int next = 0;
+        int inFlight = 0;
+        try {
+            while (next < requests.size() || inFlight > 0) {
+                while (next < requests.size() && inFlight < concurrency()) {
+                    int offset = next;
+                    BulkRequest batch = BulkRetry.copyOf(bulkRequest);
+                    int maxActions = actions();
+                    long maxBytes = bytes();
+                    while (next < requests.size() && batch.numberOfActions() < maxActions
+                            && (batch.numberOfActions() == 0 || batch.estimatedSizeInBytes() < maxBytes)) {
+                        batch.add(requests.get(next++));
+                    }
+                    completion.submit(() -> send(offset, batch, sender));
+                    inFlight++;
+                }
+                slices.add(completion.take().get());
+                inFlight--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Elasticsearch adaptive bulk interrupted with {} sub-batches in flight, their items are reported as failed", inFlight);
+        } catch (ExecutionException e) {
+            log.error("Elasticsearch adaptive bulk sub-batch find a fail, {}", e.getCause());
+        }
+        return merge(requests, slices);
+    }
+
+    /**
+     * Send one sub-batch, a failure of the whole sub-batch is reported as failed items at its positions.
+     */
+    private Slice send(int offset, BulkRequest batch, Function<BulkRequest, BulkResult> sender) {
+        try {
+            return new Slice(offset, feedback(sender.apply(batch)));
+        } catch (RuntimeException e) {
+            int status = e instanceof ElasticsearchStatusException ? ((ElasticsearchStatusException) e).status().getStatus()
+                    : RestStatus.INTERNAL_SERVER_ERROR.getStatus();
+            String reason = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            List<DocWriteRequest<?>> requests = batch.requests();
+            List<BulkItemResult> items = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                items.add(new BulkItemResult(i, requests.get(i).id(), status, reason, 1));
+            }
+            log.error("Elasticsearch adaptive bulk sub-batch of {} actions at {} find a fail, {}", requests.size(), offset, e);
+            return new Slice(offset, new BulkResult(items, 1, 0L, 0L));
+        }
+    }
+
+    public synchronized int actions() {
+        return actions;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int concurrency() {
+        return concurrency;
+    }
+
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Feed one sub-batch outcome to the AIMD controller.
+     */
+    private synchronized BulkResult feedback(BulkResult result) {
+        long rejected = result.getItems().stream()
+                .filter(item -> item.getAttempts() > 1 || item.getStatus() == RestStatus.TOO_MANY_REQUESTS.getStatus())
+                .count();
+        long took = result.getAttempts() == 0 ? 0L : (result.getTookMillis() + result.getIngestTookMillis()) / result.getAttempts();
+        if (rejected > 0) {
+            actions = clamp(actions / 2, properties.getMinActions(), properties.getMaxActions());
+            bytes = Math.max(minBytes, bytes / 2);
+            concurrency = Math.max(1, concurrency / 2);
+        } else if (took > targetMillis) {
+            double factor = (double) targetMillis / took;
+            actions = clamp((int) (actions * factor), properties.getMinActions(), properties.getMaxActions());
+            bytes = Math.max(minBytes, (long) (bytes * factor));
+        } else {
+            actions = clamp(actions + properties.getMinActions(), properties.getMinActions(), properties.getMaxActions());
+            bytes = Math.min(maxBytes, bytes + minBytes);
+            if (took < targetMillis / 2) {
+                concurrency = Math.min(properties.getMaxConcurrency(), concurrency + 1);
+            }
+        }
+        log.debug("Elasticsearch adaptive bulk took {} millisecond rejected {}, next batch {} actions {} bytes concurrency {}",
+                took, rejected, actions, bytes, concurrency);
+        return result;
+    }
+
+    private static BulkResult merge(List<DocWriteRequest<?>> requests, List<Slice> slices) {
+        List<BulkItemResult> items = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            items.add(new BulkItemResult(i, requests.get(i).id(), RestStatus.INTERNAL_SERVER_ERROR.getStatus(),
+                    "bulk sub-batch outcome unknown, the caller was interrupted", 0));
+        }
+        int attempts = 0;
+        long tookMillis = 0L;
+        long ingestTookMillis = 0L;
+        for (Slice slice : slices) {
+            for (BulkItemResult item : slice.result.getItems()) {
+                int position = slice.offset + item.getPosition();
+                items.set(position, new BulkItemResult(position, item.getId(), item.getStatus(), item.getReason(), item.getAttempts()));
+            }
+            attempts += slice.result.getAttempts();
+            tookMillis += slice.result.getTookMillis();
+            ingestTookMillis += slice.result.getIngestTookMillis();
+        }
+        return new BulkResult(items, attempts, tookMillis, ingestTookMillis);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Outcome of one sub-batch and its offset in the whole bulk request.
+     */
+    private static final class Slice {
+
+        private final int offset;
+
+        private final BulkResult result;
+
+        private Slice(int offset, BulkResult result) {
+            this.offset = offset;
+            this.result = result;
+        }
+    }
+
+}
@@ -0,0 +1,380 @@
+package spring.boot.elasticsearch.bulk;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.rest.RestStatus;
+import spring.boot.elasticsearch.config.ElasticsearchBulkProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Bulk request encoder, writes the action metadata line and the already serialized source of
+ * every item straight into one pooled buffer in NDJSON bulk format, and sends the buffer as the
+ * single entity of a low-level REST client request. Buffers are returned to the pool once the
+ * response arrives and reused by the next batches, so encoding a batch costs one copy of its
+ * sources instead of the intermediate stream and array copies of the high-level client. The
+ * pool is bounded by buffer count, by buffer size and by the summed size of its idle buffers.
+ * Requests carrying non JSON sources are sent through the high-level client unchanged.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class BulkEncoder {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+
+    private static final byte NEW_LINE = '\n';
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Idle buffers.
+     */
+    private final BlockingQueue<Buffer> pool;
+
+    private final int initialBufferSize;
+
+    /**
+     * Buffers grown beyond this size are released instead of pooled.
+     */
+    private final long maxPooledBufferSize;
+
+    /**
+     * Idle buffers are released instead of pooled beyond this summed size.
+     */
+    private final long maxPooledBytes;
+
+    /**
+     * Summed size of the idle buffers.
+     */
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    public BulkEncoder(ElasticsearchBulkProperties properties) {
+        ElasticsearchBulkProperties.Encoder encoder = properties.getEncoder();
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, encoder.getPoolSize()));
+        this.initialBufferSize = (int) Math.min(Integer.MAX_VALUE - 8, encoder.getInitialBufferSize().toBytes());
+        this.maxPooledBufferSize = encoder.getMaxPooledBufferSize().toBytes();
+        this.maxPooledBytes = encoder.getMaxPooledBytes().toBytes();
+    }
+
+    /**
+     * Encode the bulk request in NDJSON bulk format, the body {@link #execute} sends.
+     * @param bulkRequest bulk request, every index request source must be JSON.
+     * @param out receives the encoded body.
+     * @throws IOException the body could not be written.
+     */
+    public static void encode(BulkRequest bulkRequest, OutputStream out) throws IOException {
+        if (!encodable(bulkRequest)) {
+            throw new IllegalArgumentException("Elasticsearch bulk request carries non JSON sources");
+        }
+        write(bulkRequest, out);
+    }
+
+    private static void write(BulkRequest bulkRequest, OutputStream out) throws IOException {
+        for (DocWriteRequest<?> request : bulkRequest.requests()) {
+            metadata(out, request);
+            if (request instanceof IndexRequest) {
+                ((IndexRequest) request).source().writeTo(out);
+                out.write(NEW_LINE);
+            } else if (request instanceof UpdateRequest) {
+                XContentHelper.toXContent((UpdateRequest) request, XContentType.JSON, false).writeTo(out);
+                out.write(NEW_LINE);
+            }
+        }
+    }
+
+    /**
+     * Send the bulk request.
+     * @param restClient Elasticsearch rest high level client.
+     * @param bulkRequest bulk request.
+     * @return bulk response.
+     * @throws IOException the request could not be sent or its response could not be read.
+     * @throws ElasticsearchStatusException the whole bulk request failed with an error status.
+     */
+    public BulkResponse execute(RestHighLevelClient restClient, BulkRequest bulkRequest) throws IOException {
+        if (!encodable(bulkRequest)) {
+            return restClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+        }
+        Buffer buffer = acquire();
+        try {
+            Response response;
+            try {
+                response = restClient.getLowLevelClient().performRequest(request(bulkRequest, buffer));
+            } catch (ResponseException e) {
+                throw statusException(e);
+            }
+            return parse(response.getEntity());
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Send the bulk request asynchronously.
+     * @param restClient Elasticsearch rest high level client.
+     * @param bulkRequest bulk request.
+     * @param listener notified with the bulk response, or with the failure of the whole bulk request.
+     */
+    public void executeAsync(RestHighLevelClient restClient, BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+        if (!encodable(bulkRequest)) {
+            restClient.bulkAsync(bulkRequest, RequestOptions.DEFAULT, listener);
+            return;
+        }
+        Buffer buffer = acquire();
+        Request request;
+        try {
+            request = request(bulkRequest, buffer);
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            listener.onFailure(e);
+            return;
+        }
+        restClient.getLowLevelClient().performRequestAsync(request, new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                release(buffer);
+                BulkResponse bulkResponse;
+                try {
+                    bulkResponse = parse(response.getEntity());
+                } catch (IOException | RuntimeException e) {
+                    listener.onFailure(e);
+                    return;
+                }
+                listener.onResponse(bulkResponse);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                release(buffer);
+                listener.onFailure(exception instanceof ResponseException ? statusException((ResponseException) exception) : exception);
+            }
+        });
+    }
+
+    /**
+     * Whether every item source is JSON, other content types are left to the high-level client.
+     */
+    private static boolean encodable(BulkRequest bulkRequest) {
+        for (DocWriteRequest<?> request : bulkRequest.requests()) {
+            if (request instanceof IndexRequest && ((IndexRequest) request).getContentType() != XContentType.JSON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Request request(BulkRequest bulkRequest, Buffer buffer) throws IOException {
+        write(bulkRequest, buffer);
+        Request request = new Request("POST", "/_bulk");
+        if (bulkRequest.timeout() != null) {
+            request.addParameter("timeout", bulkRequest.timeout().getStringRep());
+        }
+        if (bulkRequest.getRefreshPolicy() != WriteRequest.RefreshPolicy.NONE) {
+            request.addParameter("refresh", bulkRequest.getRefreshPolicy().getValue());
+        }
+        if (bulkRequest.waitForActiveShards() != null && bulkRequest.waitForActiveShards() != ActiveShardCount.DEFAULT) {
+            request.addParameter("wait_for_active_shards", bulkRequest.waitForActiveShards().toString().toLowerCase(Locale.ROOT));
+        }
+        request.setEntity(buffer.entity());
+        return request;
+    }
+
+    /**
+     * Write the action metadata line of one item.
+     */
+    private static void metadata(OutputStream buffer, DocWriteRequest<?> request) throws IOException {
+        buffer.write('{');
+        string(buffer, request.opType().getLowercase());
+        buffer.write(':');
+        buffer.write('{');
+        field(buffer, "_index", request.index(), false);
+        field(buffer, "_type", request.type(), true);
+        field(buffer, "_id", request.id(), true);
+        field(buffer, "routing", request.routing(), true);
+        field(buffer, "parent", request.parent(), true);
+        if (request.version() != Versions.MATCH_ANY) {
+            field(buffer, "version", request.version());
+        }
+        if (request.versionType() != VersionType.INTERNAL) {
+            field(buffer, "version_type", request.versionType().name().toLowerCase(Locale.ROOT), true);
+        }
+        if (request.ifSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+            field(buffer, "if_seq_no", request.ifSeqNo());
+            field(buffer, "if_primary_term", request.ifPrimaryTerm());
+        }
+        if (request instanceof IndexRequest) {
+            field(buffer, "pipeline", ((IndexRequest) request).getPipeline(), true);
+        } else if (request instanceof UpdateRequest && ((UpdateRequest) request).retryOnConflict() > 0) {
+            field(buffer, "retry_on_conflict", ((UpdateRequest) request).retryOnConflict());
+        }
+        buffer.write('}');
+        buffer.write('}');
+        buffer.write(NEW_LINE);
+    }
+
+    private static void field(OutputStream buffer, String name, String value, boolean comma) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (comma) {
+            buffer.write(',');
+        }
+        string(buffer, name);
+        buffer.write(':');
+        string(buffer, value);
+    }
+
+    private static void field(OutputStream buffer, String name, long value) throws IOException {
+        buffer.write(',');
+        string(buffer, name);
+        buffer.write(':');
+        String digits = Long.toString(value);
+        for (int i = 0; i < digits.length(); i++) {
+            buffer.write(digits.charAt(i));
+        }
+    }
+
+    /**
+     * Write a JSON string, escaping quotes, back slashes and control characters.
+     */
+    private static void string(OutputStream buffer, String value) throws IOException {
+        buffer.write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer.write('\\');
+                buffer.write(c);
+            } else if (c < 0x20) {
+                buffer.write('\\');
+                buffer.write('u');
+                buffer.write('0');
+                buffer.write('0');
+                buffer.write(HEX[c >> 4]);
+                buffer.write(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                buffer.write(c);
+            } else {
+                int end = i + 1;
+                while (end < length && value.charAt(end) >= 0x80) {
+                    end++;
+                }
+                buffer.write(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end - 1;
+            }
+        }
+        buffer.write('"');
+    }
+
+    private static BulkResponse parse(HttpEntity entity) throws IOException {
+        try (InputStream content = entity.getContent();
+             XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                     DeprecationHandler.THROW_UNSUPPORTED_OPERATION, content)) {
+            return BulkResponse.fromXContent(parser);
+        }
+    }
+
+    private static ElasticsearchStatusException statusException(ResponseException e) {
+        RestStatus status = RestStatus.fromCode(e.getResponse().getStatusLine().getStatusCode());
+        return new ElasticsearchStatusException(e.getMessage(), status == null ? RestStatus.INTERNAL_SERVER_ERROR : status, e);
+    }
+
+    private Buffer acquire() {
+        Buffer buffer = pool.poll();
+        if (buffer == null) {
+            return new Buffer(initialBufferSize);
+        }
+        pooledBytes.addAndGet(-buffer.bytes.length);
+        return buffer;
+    }
+
+    private void release(Buffer buffer) {
+        int size = buffer.bytes.length;
+        if (size > maxPooledBufferSize || pooledBytes.addAndGet(size) > maxPooledBytes) {
+            if (size <= maxPooledBufferSize) {
+                pooledBytes.addAndGet(-size);
+            }
+            return;
+        }
+        buffer.count = 0;
+        if (!pool.offer(buffer)) {
+            pooledBytes.addAndGet(-size);
+        }
+    }
+
+    /**
+     * Growable byte buffer, written by one encoding and read by one request at a time.
+     */
+    private static final class Buffer extends OutputStream {
+
+        private byte[] bytes;
+
+        private int count;
+
+        private Buffer(int size) {
+            this.bytes = new byte[Math.max(64, size)];
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        private HttpEntity entity() {
+            return new ByteArrayEntity(bytes, 0, count, NDJSON);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity < 0) {
+                throw new OutOfMemoryError("Elasticsearch bulk request exceeds the max buffer size");
+            }
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package spring.boot.elasticsearch.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+import spring.boot.elasticsearch.exception.ElasticsearchPersistenceException;
+import spring.boot.elasticsearch.service.ElasticsearchService;
+import spring.boot.elasticsearch.vo.BulkResult;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * Scoped bulk load of one index, refreshes and replicas of the index are suspended while at least
+ * one session of the index is open. The first session opened on an index saves the original
+ * settings, the last one closed refreshes and force merges the index and restores them, see
+ * {@link Suspension}. Use with try-with-resources so that the settings are restored on every path:
+ * <pre>
+ * try (BulkLoadSession session = elasticsearchService.openBulkLoad(index)) {
+ *     session.bulk(type, routing, entities);
+ * }
+ * </pre>
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class BulkLoadSession implements AutoCloseable {
+
+    private static final String REFRESH_INTERVAL = IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey();
+
+    private static final String NUMBER_OF_REPLICAS = IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
+
+    /**
+     * Elasticsearch service instance.
+     */
+    private final ElasticsearchService elasticsearchService;
+
+    /**
+     * Elasticsearch index or alias.
+     */
+    private final String index;
+
+    /**
+     * Releases the suspension of the index, called once when the session closes.
+     */
+    private final Runnable release;
+
+    private boolean closed;
+
+    public BulkLoadSession(ElasticsearchService elasticsearchService, String index, Runnable release) {
+        this.elasticsearchService = elasticsearchService;
+        this.index = index;
+        this.release = release;
+    }
+
+    /**
+     * Elasticsearch index bulk save entities with the {@link WriteProfile#BULK_LOAD} profile.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     * @return outcome of every entity by position.
+     */
+    public <T> BulkResult bulk(String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException {
+        if (closed) {
+            throw new IllegalStateException("Elasticsearch index " + index + " bulk load session is closed");
+        }
+        return elasticsearchService.bulkResult(index, type, routing, entities, WriteProfile.BULK_LOAD);
+    }
+
+    /**
+     * Close the session, the settings of the index are restored when it is the last open session of the index.
+     */
+    @Override
+    public void close() throws ElasticsearchPersistenceException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        release.run();
+    }
+
+    /**
+     * Suspended refreshes and replicas of one index shared by its open sessions.
+     */
+    public static final class Suspension {
+
+        /**
+         * Elasticsearch rest high level client instance.
+         */
+        private final RestHighLevelClient restClient;
+
+        /**
+         * Elasticsearch index or alias.
+         */
+        private final String index;
+
+        /**
+         * Original refresh interval and replicas per concrete index, null values were not set on the index.
+         */
+        private final Map<String, Settings> originals = new LinkedHashMap<>();
+
+        /**
+         * Open sessions of the index.
+         */
+        private int sessions;
+
+        private Suspension(RestHighLevelClient restClient, String index) {
+            this.restClient = restClient;
+            this.index = index;
+        }
+
+        /**
+         * Save the original settings of the index and suspend its refreshes and replicas. Indices whose
+         * refreshes are already disabled are refused, their original settings are not known.
+         * @param restClient Elasticsearch rest high level client.
+         * @param index Elasticsearch index or alias.
+         * @return suspension without open session.
+         * @throws IOException the settings could not be read or updated.
+         * @throws ElasticsearchException the refreshes of the index are already disabled.
+         */
+        public static Suspension suspend(RestHighLevelClient restClient, String index) throws IOException {
+            Suspension suspension = new Suspension(restClient, index);
+            GetSettingsRequest getSettingsRequest = new GetSettingsRequest().indices(index).names(REFRESH_INTERVAL, NUMBER_OF_REPLICAS);
+            GetSettingsResponse response = restClient.indices().getSettings(getSettingsRequest, RequestOptions.DEFAULT);
+            ImmutableOpenMap<String, Settings> indexToSettings = response.getIndexToSettings();
+            indexToSettings.keysIt().forEachRemaining(concreteIndex -> suspension.originals.put(concreteIndex, indexToSettings.get(concreteIndex)));
+            for (Map.Entry<String, Settings> original : suspension.originals.entrySet()) {
+                if ("-1".equals(original.getValue().get(REFRESH_INTERVAL))) {
+                    throw new ElasticsearchException("Elasticsearch index " + original.getKey()
+                            + " refresh is already disabled, by another bulk load or a previous one that did not restore it", 409);
+                }
+            }
+
+            UpdateSettingsRequest updateSettingsRequest = new UpdateSettingsRequest(index);
+            updateSettingsRequest.settings(Settings.builder().put(REFRESH_INTERVAL, "-1").put(NUMBER_OF_REPLICAS, 0));
+            restClient.indices().putSettings(updateSettingsRequest, RequestOptions.DEFAULT);
+            log.info("Elasticsearch index {} bulk load opened, suspended refresh and replicas of {}", index, suspension.originals);
+            return suspension;
+        }
+
+        /**
+         * Count one more open session.
+         */
+        public void acquire() {
+            sessions++;
+        }
+
+        /**
+         * Count one session less.
+         * @return sessions still open.
+         */
+        public int release() {
+            return --sessions;
+        }
+
+        /**
+         * Refresh and force merge the index, then restore the original refresh interval and replicas,
+         * the settings are restored even when the refresh or the force merge fails.
+         * @param maxNumSegments max number of segments of the force merge, not merged when not positive.
+         */
+        public void resume(Integer maxNumSegments) throws ElasticsearchPersistenceException {
+            try {
+                restClient.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+                if (maxNumSegments != null && maxNumSegments > 0) {
+                    ForceMergeRequest forceMergeRequest = new ForceMergeRequest(index);
+                    forceMergeRequest.maxNumSegments(maxNumSegments);
+                    restClient.indices().forcemerge(forceMergeRequest, RequestOptions.DEFAULT);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Elasticsearch index {} bulk load refresh and force merge find a fail, {}", index, e);
+            } finally {
+                restore();
+            }
+        }
+
+        private void restore() {
+            boolean restored = true;
+            for (Map.Entry<String, Settings> original : originals.entrySet()) {
+                Settings.Builder builder = Settings.builder();
+                restore(builder, original.getValue(), REFRESH_INTERVAL);
+                restore(builder, original.getValue(), NUMBER_OF_REPLICAS);
+                try {
+                    restClient.indices().putSettings(new UpdateSettingsRequest(original.getKey()).settings(builder), RequestOptions.DEFAULT);
+                } catch (IOException | RuntimeException e) {
+                    restored = false;
+                    log.error("Elasticsearch index {} bulk load restore settings {} find a fail, {}", original.getKey(),
+                            original.getValue(), e);
+                }
+            }
+            if (!restored) {
+                throw new ElasticsearchPersistenceException();
+            }
+            log.info("Elasticsearch index {} bulk load closed, restored {}", index, originals);
+        }
+
+        private static void restore(Settings.Builder builder, Settings original, String name) {
+            String value = original.get(name);
+            if (value == null) {
+                builder.putNull(name);
+            } else {
+                builder.put(name, value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package spring.boot.elasticsearch.bulk;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.rest.RestStatus;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *
+ * Retry state of one bulk request, after every attempt only the items that failed with a
+ * retryable status are sent again, after a bounded exponential backoff with full jitter.
+ * Not thread safe, one instance drives one bulk call.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class BulkRetry {
+
+    /**
+     * Elasticsearch original bulk request.
+     */
+    private final BulkRequest original;
+
+    private final int retries;
+
+    private final long retryDelay;
+
+    private final long retryMaxDelay;
+
+    /**
+     * Outcome per original item position.
+     */
+    private final BulkItemResult[] items;
+
+    /**
+     * Original positions of the items of the current attempt.
+     */
+    private int[] positions;
+
+    private BulkRequest request;
+
+    private int attempts;
+
+    private long tookMillis;
+
+    private long ingestTookMillis;
+
+    public BulkRetry(BulkRequest original, ElasticsearchRequestProperties properties) {
+        this.original = original;
+        this.retries = properties.getRetries() == null ? 0 : properties.getRetries();
+        this.retryDelay = properties.getRetryDelay() == null ? 100L : properties.getRetryDelay();
+        this.retryMaxDelay = properties.getRetryMaxDelay() == null ? retryDelay : properties.getRetryMaxDelay();
+        this.items = new BulkItemResult[original.numberOfActions()];
+        this.positions = new int[items.length];
+        Arrays.setAll(positions, position -> position);
+        this.request = original;
+    }
+
+    /**
+     * Whether an item status is worth retrying, rejected executions and unavailable or overloaded nodes.
+     * The failed item was not applied, so it is resent whether or not it carries an explicit id.
+     * @param status item status.
+     * @return true when retryable.
+     */
+    public static boolean retryable(RestStatus status) {
+        return status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.BAD_GATEWAY
+                || status == RestStatus.SERVICE_UNAVAILABLE || status == RestStatus.GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Whether the failure of the whole current attempt is worth retrying. Rejected executions and
+     * unavailable nodes did not run the request. After a bad gateway or gateway timeout some items may
+     * have been applied, so the attempt is only resent when every item carries an explicit id and a
+     * resend replaces documents rather than duplicating auto id documents.
+     * @param ex bulk request failure.
+     * @return true when retryable.
+     */
+    public boolean retryable(ElasticsearchStatusException ex) {
+        RestStatus status = ex.status();
+        if (status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.SERVICE_UNAVAILABLE) {
+            return true;
+        }
+        if (status != RestStatus.BAD_GATEWAY && status != RestStatus.GATEWAY_TIMEOUT) {
+            return false;
+        }
+        List<DocWriteRequest<?>> requests = original.requests();
+        for (int position : positions) {
+            if (requests.get(position).id() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bulk request of the next attempt.
+     * @return bulk request.
+     */
+    public BulkRequest request() {
+        return request;
+    }
+
+    /**
+     * Record the response of the current attempt.
+     * @param response bulk response.
+     * @return true when retryable items remain and another attempt should be made.
+     */
+    public boolean onResponse(BulkResponse response) {
+        attempts++;
+        tookMillis += response.getTook().getMillis();
+        ingestTookMillis += Math.max(0L, response.getIngestTookInMillis());
+        BulkItemResponse[] responses = response.getItems();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < responses.length; i++) {
+            BulkItemResponse item = responses[i];
+            int position = positions[i];
+            if (item.isFailed()) {
+                items[position] = new BulkItemResult(position, item.getId(), item.status().getStatus(),
+                        item.getFailureMessage(), attempts);
+                if (retryable(item.status())) {
+                    pending.add(position);
+                }
+            } else {
+                items[position] = new BulkItemResult(position, item.getId(), item.status().getStatus(), null, attempts);
+            }
+        }
+        return retry(pending);
+    }
+
+    /**
+     * Record a failure of the whole current attempt, see {@link #retryable(ElasticsearchStatusException)}.
+     * @param ex bulk request failure.
+     * @return true when another attempt should be made.
+     */
+    public boolean onFailure(ElasticsearchStatusException ex) {
+        boolean retryable = retryable(ex);
+        attempts++;
+        RestStatus status = ex.status();
+        List<Integer> pending = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            items[position] = new BulkItemResult(position, null, status.getStatus(), ex.getMessage(), attempts);
+            if (retryable) {
+                pending.add(position);
+            }
+        }
+        return retry(pending);
+    }
+
+    /**
+     * Jittered backoff before the next attempt, uniformly drawn below the capped exponential delay.
+     * @return delay in milliseconds.
+     */
+    public long backoff() {
+        long ceiling = Math.min(retryMaxDelay, retryDelay << Math.min(attempts - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Item outcomes recorded so far.
+     * @return bulk result.
+     */
+    public BulkResult result() {
+        return new BulkResult(Arrays.asList(items), attempts, tookMillis, ingestTookMillis);
+    }
+
+    /**
+     * Empty bulk request with the timeout, refresh policy and active shards of the template.
+     */
+    static BulkRequest copyOf(BulkRequest template) {
+        BulkRequest bulkRequest = new BulkRequest();
+        bulkRequest.timeout(template.timeout());
+        bulkRequest.setRefreshPolicy(template.getRefreshPolicy());
+        bulkRequest.waitForActiveShards(template.waitForActiveShards());
+        return bulkRequest;
+    }
+
+    private boolean retry(List<Integer> pending) {
+        if (pending.isEmpty() || attempts > retries) {
+            return false;
+        }
+        List<DocWriteRequest<?>> requests = original.requests();
+        BulkRequest next = copyOf(original);
+        positions = new int[pending.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = pending.get(i);
+            next.add(requests.get(positions[i]));
+        }
+        request = next;
+        return true;
+    }
+
+}
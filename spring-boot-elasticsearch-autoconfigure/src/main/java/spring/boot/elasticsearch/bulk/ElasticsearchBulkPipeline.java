@@ -0,0 +1,164 @@
+package spring.boot.elasticsearch.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.springframework.lang.Nullable;
+import spring.boot.elasticsearch.cache.SearchResultCache;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.config.ElasticsearchBulkProperties;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Asynchronous bulk ingestion pipeline, buffers entities and flushes them
+ * by document count, byte size or time interval through a {@link BulkProcessor}. The cached
+ * search results of the written indices are invalidated once each flushed bulk request completes.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class ElasticsearchBulkPipeline {
+
+    /**
+     * Elasticsearch bulk processor instance.
+     */
+    private final BulkProcessor bulkProcessor;
+
+    /**
+     * Elasticsearch bulk pipeline properties instance.
+     */
+    private final ElasticsearchBulkProperties properties;
+
+    /**
+     * Elasticsearch search result cache instance, null when caching is disabled.
+     */
+    @Nullable
+    private final SearchResultCache resultCache;
+
+    public ElasticsearchBulkPipeline(RestHighLevelClient restClient, ElasticsearchBulkProperties properties) {
+        this(restClient, properties, null);
+    }
+
+    /**
+     * @param bulkEncoder encodes the flushed bulk requests, the high-level client encodes them when null.
+     */
+    public ElasticsearchBulkPipeline(RestHighLevelClient restClient, ElasticsearchBulkProperties properties,
+                                     @Nullable BulkEncoder bulkEncoder) {
+        this(restClient, properties, bulkEncoder, null);
+    }
+
+    /**
+     * @param bulkEncoder encodes the flushed bulk requests, the high-level client encodes them when null.
+     * @param resultCache invalidated for the written indices after every flushed bulk request.
+     */
+    public ElasticsearchBulkPipeline(RestHighLevelClient restClient, ElasticsearchBulkProperties properties,
+                                     @Nullable BulkEncoder bulkEncoder, @Nullable SearchResultCache resultCache) {
+        this.properties = properties;
+        this.resultCache = resultCache;
+        this.bulkProcessor = BulkProcessor.builder(
+                bulkEncoder == null
+                        ? (request, bulkListener) -> restClient.bulkAsync(request, RequestOptions.DEFAULT, bulkListener)
+                        : (request, bulkListener) -> bulkEncoder.executeAsync(restClient, request, bulkListener),
+                new PipelineListener())
+                .setBulkActions(properties.getActions())
+                .setBulkSize(new ByteSizeValue(properties.getSize().toBytes(), ByteSizeUnit.BYTES))
+                .setFlushInterval(TimeValue.timeValueMillis(properties.getFlushInterval().toMillis()))
+                .setConcurrentRequests(properties.getConcurrentRequests())
+                .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+                        TimeValue.timeValueMillis(properties.getBackoffDelay().toMillis()), properties.getBackoffRetries()))
+                .build();
+    }
+
+    /**
+     * Add entities to the pipeline, blocks while the configured concurrent requests are in flight.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     */
+    public <T> void add(String index, String type, String routing, Collection<T> entities) {
+        for(T entity : entities){
+            bulkProcessor.add(ElasticsearchRequests.index(index, type, routing, entity));
+        }
+    }
+
+    /**
+     * Flush the buffered entities immediately.
+     */
+    public void flush() {
+        bulkProcessor.flush();
+    }
+
+    /**
+     * Flush the buffered entities and wait for in flight bulk requests to finish.
+     * @return Whether all bulk requests finished before the await termination elapsed.
+     * @throws InterruptedException Interrupted while waiting.
+     */
+    public boolean close() throws InterruptedException {
+        boolean terminated = bulkProcessor.awaitClose(properties.getAwaitTermination().toMillis(), TimeUnit.MILLISECONDS);
+        if(!terminated){
+            log.warn("Elasticsearch bulk pipeline closed before in flight requests finished within {}", properties.getAwaitTermination());
+        }
+        return terminated;
+    }
+
+    /**
+     * Invalidate the cached search results of the indices written by the bulk request, after a failure
+     * too since part of the items may have been applied.
+     */
+    private void invalidate(BulkRequest request) {
+        if(resultCache == null){
+            return;
+        }
+        Set<String> indices = new LinkedHashSet<>();
+        request.requests().forEach(item -> indices.add(item.index()));
+        indices.forEach(resultCache::invalidate);
+    }
+
+    /**
+     * Bulk processor listener reporting every executed bulk request.
+     */
+    private class PipelineListener implements BulkProcessor.Listener {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            log.debug("Elasticsearch bulk pipeline execution {} send {} actions {} bytes", executionId,
+                    request.numberOfActions(), request.estimatedSizeInBytes());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            invalidate(request);
+            if(response.hasFailures()){
+                log.error("Elasticsearch bulk pipeline execution {} build a fail message {}", executionId,
+                        response.buildFailureMessage());
+            }else{
+                log.debug("Elasticsearch bulk pipeline execution {} The time {} article Execution Time： {} millisecond.",
+                        executionId, response.getItems().length, response.getTook().getMillis());
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            invalidate(request);
+            log.error("Elasticsearch bulk pipeline execution {} {} actions find a fail, {}", executionId,
+                    request.numberOfActions(), failure);
+        }
+    }
+
+}
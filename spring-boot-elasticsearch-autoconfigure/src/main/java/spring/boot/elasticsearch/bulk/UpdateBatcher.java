@@ -0,0 +1,181 @@
+package spring.boot.elasticsearch.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.config.ElasticsearchBulkProperties;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ *
+ * Update micro-batcher, gathers concurrent update calls of one index, type and write profile into one
+ * bulk request. A batch is sent when its window ends or when it is full, whichever comes first,
+ * and every caller is completed with the outcome of its own item. A full batch is sent on the thread
+ * of the caller filling it, a batch whose window ended is handed to the senders so that the window
+ * timer never waits on a bulk call.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class UpdateBatcher {
+
+    /**
+     * Elasticsearch update batching properties instance.
+     */
+    private final ElasticsearchBulkProperties.Updates properties;
+
+    /**
+     * Elasticsearch request properties instance.
+     */
+    private final ElasticsearchRequestProperties requestProperties;
+
+    /**
+     * Window timer.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Senders of the batches whose window ended.
+     */
+    private final ExecutorService senders;
+
+    /**
+     * Open batches by index, type and write profile.
+     */
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    public UpdateBatcher(ElasticsearchBulkProperties properties, ElasticsearchRequestProperties requestProperties) {
+        this.properties = properties.getUpdates();
+        this.requestProperties = requestProperties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("elasticsearch-update-timer-"));
+        this.senders = Executors.newFixedThreadPool(Math.max(1, this.properties.getConcurrency()),
+                new CustomizableThreadFactory("elasticsearch-update-"));
+    }
+
+    /**
+     * Add the update request to the open batch of its index, type and write profile.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param profile write profile of the batch, configured request settings when null.
+     * @param updateRequest update request, its refresh policy is carried by the bulk request.
+     * @param sender sends one batch and reports its item outcomes, it may only depend on index, type and the batch
+     *               itself since one sender sends the updates of every caller of the batch.
+     * @return future of the item outcome, completed exceptionally when the whole batch failed.
+     */
+    public CompletableFuture<BulkItemResult> submit(String index, String type, @Nullable WriteProfile profile, UpdateRequest updateRequest,
+                                                    Function<BulkRequest, BulkResult> sender) {
+        CompletableFuture<BulkItemResult> future = new CompletableFuture<>();
+        String key = index + '/' + type + '/' + profile;
+        Batch full = null;
+        synchronized (this) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                BulkRequest bulkRequest = ElasticsearchRequests.bulk(requestProperties, profile, index, null, null, Collections.emptyList());
+                batch = new Batch(key, bulkRequest, sender);
+                Batch scheduled = batch;
+                batch.timer = scheduler.schedule(() -> flush(scheduled), properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+                batches.put(key, batch);
+            }
+            batch.bulkRequest.add(updateRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.NONE));
+            batch.futures.add(future);
+            if (batch.futures.size() >= properties.getMaxActions()) {
+                batches.remove(key);
+                batch.timer.cancel(false);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    /**
+     * Send every open batch and shut the timer and the senders down.
+     */
+    public void close() {
+        List<Batch> open;
+        synchronized (this) {
+            open = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        open.forEach(batch -> {
+            batch.timer.cancel(false);
+            send(batch);
+        });
+        scheduler.shutdown();
+        senders.shutdown();
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (!batches.remove(batch.key, batch)) {
+                return;
+            }
+        }
+        try {
+            senders.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        try {
+            List<BulkItemResult> items = batch.sender.apply(batch.bulkRequest).getItems();
+            for (int i = 0; i < batch.futures.size(); i++) {
+                batch.futures.get(i).complete(items.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Elasticsearch update batch {} of {} updates find a fail, {}", batch.key, batch.futures.size(), e);
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * One open batch.
+     */
+    private static final class Batch {
+
+        private final String key;
+
+        private final BulkRequest bulkRequest;
+
+        private final Function<BulkRequest, BulkResult> sender;
+
+        private final List<CompletableFuture<BulkItemResult>> futures = new ArrayList<>();
+
+        private ScheduledFuture<?> timer;
+
+        private Batch(String key, BulkRequest bulkRequest, Function<BulkRequest, BulkResult> sender) {
+            this.key = key;
+            this.bulkRequest = bulkRequest;
+            this.sender = sender;
+        }
+    }
+
+}
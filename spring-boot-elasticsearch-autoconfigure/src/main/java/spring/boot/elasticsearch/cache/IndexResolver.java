@@ -0,0 +1,110 @@
+package spring.boot.elasticsearch.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *
+ * Resolves index expressions, aliases, wildcards and comma separated lists, to the concrete
+ * indices they currently point to through the {@code _alias} endpoint. Resolutions are kept for
+ * a time to live so that only the first search of an expression goes to the cluster, writes only
+ * read the kept resolutions and never block on the cluster.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class IndexResolver {
+
+    /**
+     * Elasticsearch rest low level client instance.
+     */
+    private final RestClient restClient;
+
+    private final long ttlNanos;
+
+    /**
+     * Resolved concrete indices per index expression.
+     */
+    private final ConcurrentMap<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    public IndexResolver(RestClient restClient, Duration ttl) {
+        this.restClient = restClient;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Concrete indices of the index expression.
+     * @param expression Elasticsearch index expression.
+     * @return concrete indices, null when the expression could not be resolved.
+     */
+    @Nullable
+    public Set<String> resolve(String expression) {
+        Set<String> cached = cached(expression);
+        if (cached != null) {
+            return cached;
+        }
+        Request request = new Request("GET", "/" + expression + "/_alias");
+        request.addParameter("ignore_unavailable", "true");
+        request.addParameter("allow_no_indices", "true");
+        Set<String> indices;
+        try {
+            Response response = restClient.performRequest(request);
+            try (InputStream content = response.getEntity().getContent();
+                 XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                         DeprecationHandler.THROW_UNSUPPORTED_OPERATION, content)) {
+                indices = Collections.unmodifiableSet(new LinkedHashSet<>(parser.map().keySet()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Elasticsearch index expression {} resolve find a fail, {}", expression, e.getMessage());
+            return null;
+        }
+        resolutions.put(expression, new Resolution(indices, System.nanoTime() + ttlNanos));
+        return indices;
+    }
+
+    /**
+     * Concrete indices of the index expression as last resolved, without going to the cluster.
+     * @param expression Elasticsearch index expression.
+     * @return concrete indices, null when the expression has no live resolution.
+     */
+    @Nullable
+    public Set<String> cached(String expression) {
+        Resolution resolution = resolutions.get(expression);
+        return resolution != null && resolution.expiresAt - System.nanoTime() > 0 ? resolution.indices : null;
+    }
+
+    /**
+     * One resolved index expression.
+     */
+    private static final class Resolution {
+
+        private final Set<String> indices;
+
+        private final long expiresAt;
+
+        private Resolution(Set<String> indices, long expiresAt) {
+            this.indices = indices;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
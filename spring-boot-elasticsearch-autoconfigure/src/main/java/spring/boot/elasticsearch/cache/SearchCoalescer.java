@@ -0,0 +1,107 @@
+package spring.boot.elasticsearch.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.CheckedSupplier;
+import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Search request coalescer, concurrent identical searches share one in flight request:
+ * the first caller sends the search and every caller arriving before it answered waits for
+ * its response. A waiter sends its own search when the shared one runs past the max wait.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class SearchCoalescer {
+
+    /**
+     * Elasticsearch search properties instance.
+     */
+    private final ElasticsearchSearchProperties properties;
+
+    /**
+     * In flight searches by canonical request form.
+     */
+    private final ConcurrentMap<String, CompletableFuture<SearchResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Searches answered by another caller's request.
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    public SearchCoalescer(ElasticsearchSearchProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Send the search, or wait for the identical search already in flight.
+     * @param searchRequest search request, its canonical form covers index, routing, query and page.
+     * @param search sends the search request.
+     * @return search response, shared by every coalesced caller.
+     */
+    public SearchResponse execute(SearchRequest searchRequest, CheckedSupplier<SearchResponse, IOException> search) throws IOException {
+        String key = searchRequest.toString();
+        CompletableFuture<SearchResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SearchResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            try {
+                SearchResponse response = search.get();
+                flight.complete(response);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+        try {
+            SearchResponse response = leader.get(properties.getCoalesceMaxWait(), TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return response;
+        } catch (TimeoutException e) {
+            log.debug("Elasticsearch coalesced search waited over {} millisecond, sending its own request", properties.getCoalesceMaxWait());
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Searches answered by another caller's request since startup.
+     * @return coalesced searches.
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+}
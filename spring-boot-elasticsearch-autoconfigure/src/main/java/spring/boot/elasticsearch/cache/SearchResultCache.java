@@ -0,0 +1,311 @@
+package spring.boot.elasticsearch.cache;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.search.SearchHit;
+import org.springframework.lang.Nullable;
+import spring.boot.elasticsearch.config.ElasticsearchCacheProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * Search result cache, LRU bounded by entries and by the summed _source size of the cached
+ * results, with a time to live per index. Writes to an index through the Elasticsearch services
+ * invalidate its results, searches that started before the write do not store their result.
+ * Results are tracked under the names of their index expression, the concrete indices the
+ * {@link IndexResolver} resolves it to and its wildcard patterns, so that a write to a concrete
+ * index drops the results searched through its aliases and patterns without scanning the cache.
+ * Searches resolve their expression on a cache miss, writes through an alias only use the alias
+ * resolution a search already made, so invalidation never blocks on the cluster.
+ * Cached entities are shared by every caller that hits the entry, callers get their own list but
+ * must treat the entities as read-only.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class SearchResultCache {
+
+    /**
+     * Elasticsearch cache properties instance.
+     */
+    private final ElasticsearchCacheProperties properties;
+
+    private final long maxWeight;
+
+    /**
+     * Cached results in access order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * Cache keys per index name, alias or concrete index.
+     */
+    private final Map<String, Set<String>> keysByIndex = new HashMap<>();
+
+    /**
+     * Cache keys per wildcard index pattern.
+     */
+    private final Map<String, Set<String>> keysByPattern = new HashMap<>();
+
+    /**
+     * Write sequence of the last write per index.
+     */
+    private final Map<String, Long> writes = new HashMap<>();
+
+    /**
+     * Resolves index expressions to concrete indices, aliases are not tracked when null.
+     */
+    @Nullable
+    private final IndexResolver resolver;
+
+    private long sequence;
+
+    private long weight;
+
+    public SearchResultCache(ElasticsearchCacheProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * @param resolver resolves the aliases and patterns of searched and written indices.
+     */
+    public SearchResultCache(ElasticsearchCacheProperties properties, @Nullable IndexResolver resolver) {
+        this.properties = properties;
+        this.maxWeight = properties.getMaxWeight().toBytes();
+        this.resolver = resolver;
+    }
+
+    /**
+     * Canonical cache key of search requests and result class, the request form covers the
+     * indices, routing, search type and the compiled query, page and projection.
+     * @param clazz result class.
+     * @param requests search requests.
+     * @return cache key.
+     */
+    public static String key(Class<?> clazz, List<SearchRequest> requests) {
+        StringBuilder key = new StringBuilder(clazz.getName());
+        for (SearchRequest request : requests) {
+            key.append('\n').append(request);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Weight of one search response, the summed _source size of its hits.
+     * @param response search response.
+     * @return weight in bytes.
+     */
+    public static long weigh(SearchResponse response) {
+        long bytes = 0L;
+        for (SearchHit hit : response.getHits().getHits()) {
+            bytes += hit.getSourceRef() == null ? 0 : hit.getSourceRef().length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Get a live cached result.
+     * @param index Elasticsearch index.
+     * @param key cache key.
+     * @return cached result or null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <V> V get(String index, String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            remove(key);
+            return null;
+        }
+        return (V) entry.value;
+    }
+
+    /**
+     * Current write generation, to be passed to {@link #put}.
+     * @param index Elasticsearch index.
+     * @return write generation.
+     */
+    public synchronized long generation(String index) {
+        return sequence;
+    }
+
+    /**
+     * Store a result unless one of the searched indices was written since generation was read.
+     * @param index Elasticsearch index expression.
+     * @param key cache key.
+     * @param value result.
+     * @param bytes result weight.
+     * @param generation write generation read before the search was sent.
+     */
+    public void put(String index, String key, Object value, long bytes, long generation) {
+        long entryWeight = bytes + key.length();
+        Duration ttl = properties.getIndexTtl().getOrDefault(index, properties.getTtl());
+        if (entryWeight > maxWeight || ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        Targets targets = targets(index);
+        if (targets == null) {
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<String, Long> write : writes.entrySet()) {
+                if (write.getValue() > generation && targets.matches(write.getKey())) {
+                    return;
+                }
+            }
+            remove(key);
+            entries.put(key, new Entry(targets, value, entryWeight, System.nanoTime() + ttl.toNanos()));
+            targets.names.forEach(name -> keysByIndex.computeIfAbsent(name, ignored -> new HashSet<>()).add(key));
+            targets.patterns.forEach(pattern -> keysByPattern.computeIfAbsent(pattern, ignored -> new HashSet<>()).add(key));
+            weight += entryWeight;
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > properties.getMaxEntries() || weight > maxWeight) && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unregister(evicted.getKey(), evicted.getValue());
+            }
+        }
+    }
+
+    /**
+     * Drop every cached result searched through index, its aliases or matching patterns, and reject
+     * results of searches still in flight.
+     * @param index Elasticsearch index written to.
+     */
+    public void invalidate(String index) {
+        Set<String> written = new HashSet<>();
+        written.add(index);
+        Set<String> resolved = resolver == null ? null : resolver.cached(index);
+        if (resolved != null) {
+            written.addAll(resolved);
+        }
+        synchronized (this) {
+            sequence++;
+            for (String name : written) {
+                writes.put(name, sequence);
+                Set<String> keys = keysByIndex.get(name);
+                if (keys != null) {
+                    new HashSet<>(keys).forEach(this::remove);
+                }
+                for (String pattern : new HashSet<>(keysByPattern.keySet())) {
+                    if (Regex.simpleMatch(pattern, name)) {
+                        new HashSet<>(keysByPattern.get(pattern)).forEach(this::remove);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByIndex.clear();
+        keysByPattern.clear();
+        weight = 0L;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Names and patterns of an index expression, null when its aliases could not be resolved.
+     */
+    @Nullable
+    private Targets targets(String expression) {
+        Set<String> names = new HashSet<>();
+        Set<String> patterns = new HashSet<>();
+        for (String part : expression.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty() || name.startsWith("-")) {
+                continue;
+            }
+            if ("_all".equals(name) || Regex.isSimpleMatchPattern(name)) {
+                patterns.add("_all".equals(name) ? "*" : name);
+            } else {
+                names.add(name);
+            }
+        }
+        if (resolver != null) {
+            Set<String> resolved = resolver.resolve(expression);
+            if (resolved == null) {
+                return null;
+            }
+            names.addAll(resolved);
+        }
+        return new Targets(names, patterns);
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unregister(key, entry);
+        }
+    }
+
+    private void unregister(String key, Entry entry) {
+        weight -= entry.weight;
+        entry.targets.names.forEach(name -> unregister(keysByIndex, name, key));
+        entry.targets.patterns.forEach(pattern -> unregister(keysByPattern, pattern, key));
+    }
+
+    private static void unregister(Map<String, Set<String>> keys, String target, String key) {
+        Set<String> targetKeys = keys.get(target);
+        if (targetKeys != null && targetKeys.remove(key) && targetKeys.isEmpty()) {
+            keys.remove(target);
+        }
+    }
+
+    /**
+     * Index names and wildcard patterns one cached result was searched through.
+     */
+    private static final class Targets {
+
+        private final Set<String> names;
+
+        private final Set<String> patterns;
+
+        private Targets(Set<String> names, Set<String> patterns) {
+            this.names = names;
+            this.patterns = patterns;
+        }
+
+        private boolean matches(String index) {
+            return names.contains(index) || patterns.stream().anyMatch(pattern -> Regex.simpleMatch(pattern, index));
+        }
+    }
+
+    /**
+     * One cached result.
+     */
+    private static final class Entry {
+
+        private final Targets targets;
+
+        private final Object value;
+
+        private final long weight;
+
+        private final long expiresAt;
+
+        private Entry(Targets targets, Object value, long weight, long expiresAt) {
+            this.targets = targets;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.annotation.JSONField;
+import org.springframework.lang.Nullable;
+import spring.boot.elasticsearch.annotations.Field;
+import spring.boot.elasticsearch.annotations.Id;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+
+/**
+ *
+ * Compiled document id and routing accessors of an entity class, the {@link Id} annotated field
+ * and the {@link Field#routing()} field of the class and its super classes are resolved once per
+ * class and read through cached getters. The document name of the id field is kept as the keyword
+ * tie breaker of search after cursors.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class DocumentAccessor {
+
+    /**
+     * Document accessor per entity class.
+     */
+    private static final ClassValue<DocumentAccessor> ACCESSORS = new ClassValue<DocumentAccessor>() {
+        @Override
+        protected DocumentAccessor computeValue(Class<?> type) {
+            return new DocumentAccessor(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    @Nullable
+    private final MethodHandle id;
+
+    @Nullable
+    private final MethodHandle routing;
+
+    /**
+     * Document field name of the id field.
+     */
+    @Nullable
+    private final String idField;
+
+    private DocumentAccessor(Class<?> type) {
+        String idName = null;
+        MethodHandle idGetter = null;
+        MethodHandle routingGetter = null;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (java.lang.reflect.Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Field mappedField = field.getAnnotation(Field.class);
+                boolean isId = idGetter == null && field.isAnnotationPresent(Id.class);
+                boolean isRouting = routingGetter == null && mappedField != null && mappedField.routing();
+                if (!isId && !isRouting) {
+                    continue;
+                }
+                MethodHandle getter;
+                try {
+                    field.setAccessible(true);
+                    getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new ElasticsearchException("failed to access document field: " + field.getName(), e);
+                }
+                if (isId) {
+                    JSONField jsonField = field.getAnnotation(JSONField.class);
+                    idName = jsonField != null && !jsonField.name().isEmpty() ? jsonField.name() : field.getName();
+                    idGetter = getter;
+                }
+                if (isRouting) {
+                    routingGetter = getter;
+                }
+            }
+        }
+        this.id = idGetter;
+        this.routing = routingGetter;
+        this.idField = idName;
+    }
+
+    /**
+     * Get the cached document accessor of entity class.
+     * @param type entity class.
+     * @return document accessor.
+     */
+    public static DocumentAccessor of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * Whether the entity class has an {@link Id} annotated field.
+     * @return true when ids are read from the entities.
+     */
+    public boolean hasId() {
+        return id != null;
+    }
+
+    /**
+     * Document field name of the {@link Id} annotated field.
+     * @return field name, null when the class has no id field.
+     */
+    @Nullable
+    public String idField() {
+        return idField;
+    }
+
+    /**
+     * Document id of entity.
+     * @param entity entity.
+     * @return document id, null when the class has no id field or the field is not set.
+     */
+    @Nullable
+    public String id(Object entity) {
+        return read(id, entity);
+    }
+
+    /**
+     * Document routing of entity.
+     * @param entity entity.
+     * @return document routing, null when the class has no routing field or the field is not set.
+     */
+    @Nullable
+    public String routing(Object entity) {
+        return read(routing, entity);
+    }
+
+    @Nullable
+    private static String read(@Nullable MethodHandle getter, Object entity) {
+        if (getter == null) {
+            return null;
+        }
+        Object value;
+        try {
+            value = getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw new ElasticsearchException("failed to read document field of: " + entity.getClass().getName(), e);
+        }
+        return value == null ? null : value.toString();
+    }
+
+}
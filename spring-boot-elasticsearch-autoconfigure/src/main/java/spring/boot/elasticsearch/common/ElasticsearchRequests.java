@@ -0,0 +1,435 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.action.admin.indices.get.GetIndexRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import spring.boot.elasticsearch.annotations.Id;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
+import spring.boot.elasticsearch.constants.ElasticsearchConstants;
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+import spring.boot.elasticsearch.exception.ElasticsearchCreateIndexMustException;
+import spring.boot.elasticsearch.exception.ElasticsearchCreateIndexNotFoundException;
+import spring.boot.elasticsearch.exception.ElasticsearchMappingException;
+import spring.boot.elasticsearch.vo.CursorPageVo;
+import spring.boot.elasticsearch.vo.IndexVo;
+import spring.boot.elasticsearch.vo.PageVo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Elasticsearch request factory shared by the blocking and asynchronous services.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class ElasticsearchRequests {
+
+    private ElasticsearchRequests() {
+    }
+
+    /**
+     * Resolve the Elasticsearch type, defaults to {@link ElasticsearchConstants#DEFAULT_INDEX_TYPE}.
+     * @param type Elasticsearch type.
+     * @return Elasticsearch type.
+     */
+    public static String type(String type) {
+        return StringUtils.isEmpty(type) ? ElasticsearchConstants.DEFAULT_INDEX_TYPE : type;
+    }
+
+    public static GetIndexRequest exists(String index) {
+        GetIndexRequest request = new GetIndexRequest();
+        request.indices(index);
+        request.local(false);
+        request.humanReadable(true);
+        return request;
+    }
+
+    public static CreateIndexRequest create(ElasticsearchProperties properties, String index, String type, String aliasName,
+                                            Collection<? extends IndexVo> indexCollections) throws ElasticsearchCreateIndexNotFoundException,
+            ElasticsearchCreateIndexMustException, ElasticsearchMappingException {
+        if(StringUtils.isEmpty(index)){
+            throw new ElasticsearchCreateIndexNotFoundException();
+        }
+
+        type = type(type);
+
+        if(StringUtils.isEmpty(aliasName)){
+            aliasName = index.substring(0, 3);
+        }
+
+        if(indexCollections.isEmpty()){
+            throw new ElasticsearchCreateIndexMustException();
+        }
+
+        CreateIndexRequest request = new CreateIndexRequest(index);
+        PropertyMapper map = PropertyMapper.get();
+        Settings.Builder builder = Settings.builder();
+        map.from(properties::getIndex).whenNonNull().to( settings ->{
+            settings.forEach( (property, value) -> builder.put(property, value));
+        });
+        request.settings(builder);
+        request.mapping(type, mapping(type, indexCollections));
+        request.alias(new Alias(aliasName));
+        return request;
+    }
+
+    /**
+     * Build the create index request of a {@link spring.boot.elasticsearch.annotations.Document} annotated class
+     * from its cached settings and mapping.
+     */
+    public static CreateIndexRequest create(ElasticsearchProperties properties, Class<?> documentClass) throws ElasticsearchMappingException {
+        return IndexMapping.of(documentClass).request(properties);
+    }
+
+    /**
+     * According to Elasticsearch index type and index settings collection go mapping Elasticsearch current Index.
+     * @param type Elasticsearch index type.
+     * @param indexCollections Elasticsearch index settings collection.
+     * @return XContent Builder After for mapping Elasticsearch current Index.
+     * @throws ElasticsearchMappingException Mapping Elasticsearch index When throw exception.
+     */
+    public static XContentBuilder mapping(String type, Collection<? extends IndexVo> indexCollections) throws ElasticsearchMappingException {
+        XContentBuilder builder = null;
+        try {
+            builder = JsonXContent.contentBuilder().startObject().startObject(type).startObject("properties");
+            for (IndexVo indexVo : indexCollections) {
+                builder = builder.startObject(indexVo.getName());
+                Map<String, String> attr = indexVo.getAttr();
+                if (!attr.isEmpty()) {
+                    for (Map.Entry<String, String> entry : attr.entrySet()) {
+                        builder = builder.field(entry.getKey(), entry.getValue());
+                    }
+                }
+                builder = builder.endObject();
+            }
+            builder = builder.endObject().endObject().endObject();
+        }catch (IOException ex){
+            throw new ElasticsearchMappingException();
+        }
+        return builder;
+    }
+
+    /**
+     * Build the index request of entity. The document id comes from the entity {@link Id} field, and
+     * the routing from its routing field, falling back to the routing argument when it is not set.
+     */
+    public static IndexRequest index(String index, String type, String routing, Object entity) {
+        DocumentAccessor accessor = DocumentAccessor.of(entity.getClass());
+        IndexRequest indexRequest = new IndexRequest(index, type(type));
+        String id = accessor.id(entity);
+        if(!StringUtils.isEmpty(id)){
+            indexRequest.id(id);
+        }
+        String documentRouting = routing(accessor, routing, entity);
+        if(!StringUtils.isEmpty(documentRouting)){
+            indexRequest.routing(documentRouting);
+        }
+        indexRequest.opType(DocWriteRequest.OpType.INDEX)
+                .source(JSON.toJSONBytes(entity, SerializerFeature.DisableCircularReferenceDetect), XContentType.JSON);
+        return indexRequest;
+    }
+
+    public static <T> BulkRequest bulk(ElasticsearchRequestProperties properties, String index, String type, String routing,
+                                       Collection<T> entities) {
+        return bulk(properties, null, index, type, routing, entities);
+    }
+
+    /**
+     * Build the bulk request of entities, the write profile refresh policy and active shards take
+     * precedence over the configured request settings.
+     */
+    public static <T> BulkRequest bulk(ElasticsearchRequestProperties properties, @Nullable WriteProfile profile, String index,
+                                       String type, String routing, Collection<T> entities) {
+        BulkRequest bulkRequest = new BulkRequest();
+        PropertyMapper map = PropertyMapper.get();
+        map.from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis).to(bulkRequest::timeout);
+        map.from(refreshPolicy(properties, profile)).whenNonNull().to(bulkRequest::setRefreshPolicy);
+        map.from(activeShards(properties, profile)).whenNonNull().to(bulkRequest::waitForActiveShards);
+        DocWriteRequest.OpType opType = StringUtils.isEmpty(properties.getBulkOpType()) ? DocWriteRequest.OpType.INDEX
+                : DocWriteRequest.OpType.fromString(properties.getBulkOpType());
+        for(T entity : entities){
+            bulkRequest.add(write(properties, opType, index, type, routing, entity));
+        }
+        return bulkRequest;
+    }
+
+    /**
+     * Build the bulk item of entity. Entities with an id are written with the configured op type:
+     * index replaces the document, create only adds a missing one, update merges into it or
+     * inserts it. Entities without an id are always indexed under an auto generated id.
+     */
+    private static DocWriteRequest<?> write(ElasticsearchRequestProperties properties, DocWriteRequest.OpType opType,
+                                            String index, String type, String routing, Object entity) {
+        IndexRequest indexRequest = index(index, type, routing, entity);
+        if(indexRequest.id() == null){
+            return indexRequest;
+        }
+        switch (opType) {
+            case CREATE:
+                return indexRequest.opType(DocWriteRequest.OpType.CREATE);
+            case UPDATE:
+                UpdateRequest updateRequest = new UpdateRequest(index, type(type), indexRequest.id())
+                        .routing(indexRequest.routing())
+                        .doc(indexRequest)
+                        .docAsUpsert(true);
+                PropertyMapper.get().from(properties::getRetryOnConflict).whenNonNull().to(updateRequest::retryOnConflict);
+                return updateRequest;
+            default:
+                return indexRequest;
+        }
+    }
+
+    public static <T> UpdateRequest update(ElasticsearchRequestProperties properties, String index, String type, String routing, T entity) {
+        return update(properties, null, index, type, routing, entity);
+    }
+
+    public static <T> UpdateRequest update(ElasticsearchRequestProperties properties, @Nullable WriteProfile profile, String index,
+                                           String type, String routing, T entity) {
+        return update(properties, profile, index, type, routing, null, entity, false);
+    }
+
+    /**
+     * Build the partial update request of the document id, the entity is inserted as the document
+     * when upsert is set and the document is missing. Version conflicts are retried
+     * {@link ElasticsearchRequestProperties#getRetryOnConflict()} times by the cluster. Without an id
+     * argument the id is read from the entity {@link Id} field, and the entity routing field takes
+     * precedence over the routing argument.
+     */
+    public static <T> UpdateRequest update(ElasticsearchRequestProperties properties, @Nullable WriteProfile profile, String index,
+                                           String type, String routing, @Nullable String id, T entity, boolean upsert) {
+        DocumentAccessor accessor = DocumentAccessor.of(entity.getClass());
+        UpdateRequest updateRequest = new UpdateRequest();
+        updateRequest.index(index).type(type(type));
+        String documentId = StringUtils.isEmpty(id) ? accessor.id(entity) : id;
+        if(!StringUtils.isEmpty(documentId)){
+            updateRequest.id(documentId);
+        }
+        updateRequest.docAsUpsert(upsert);
+        PropertyMapper map = PropertyMapper.get();
+        map.from(properties::getRetryOnConflict).whenNonNull().to(updateRequest::retryOnConflict);
+        map.from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis).to(updateRequest::timeout);
+        map.from(refreshPolicy(properties, profile)).whenNonNull().to(updateRequest::setRefreshPolicy);
+        map.from(activeShards(properties, profile)).whenNonNull().to(updateRequest::waitForActiveShards);
+        updateRequest.doc(JSON.toJSONBytes(entity, SerializerFeature.DisableCircularReferenceDetect), XContentType.JSON);
+        String documentRouting = routing(accessor, routing, entity);
+        if(!StringUtils.isEmpty(documentRouting)){
+            updateRequest.routing(documentRouting);
+        }
+        return updateRequest;
+    }
+
+    public static <Q> DeleteByQueryRequest deleteByQuery(ElasticsearchRequestProperties properties, String index, String type,
+                                                         String routing, Q searchEntity) {
+        DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(index);
+        if(!StringUtils.isEmpty(type)){
+            deleteByQueryRequest.setDocTypes(type);
+        }
+        PropertyMapper map = PropertyMapper.get();
+        map.from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis).to(deleteByQueryRequest::setTimeout);
+        map.from(activeShards(properties, null)).whenNonNull().to(deleteByQueryRequest::setWaitForActiveShards);
+        if(!StringUtils.isEmpty(routing)){
+            deleteByQueryRequest.setRouting(routing);
+        }
+        if(searchEntity != null){
+            deleteByQueryRequest.setQuery(QueryPlan.of(searchEntity.getClass()).compile(searchEntity));
+        }
+        return deleteByQueryRequest;
+    }
+
+    public static <Q> SearchRequest search(ElasticsearchSearchProperties properties, String index, String routing,
+                                           Q searchEntity, PageVo pageVo, @Nullable Class<?> clazz) {
+        SearchRequest searchRequest = new SearchRequest(index);
+        searchRequest.searchType(SearchType.DEFAULT);
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+        putMultiConditionFields(searchEntity, sourceBuilder);
+        PropertyMapper.get().from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis)
+                .to(sourceBuilder::timeout);
+        if(!StringUtils.isEmpty(routing)){
+            searchRequest.routing(routing);
+        }
+        sourceBuilder.from(pageVo.getFrom()).size(pageVo.getSize());
+        sourceBuilder.fetchSource(fetchSource(properties, clazz, pageVo.getIncludes(), pageVo.getExcludes()));
+        searchRequest.source(sourceBuilder);
+        return searchRequest;
+    }
+
+    public static <Q> SearchRequest scroll(ElasticsearchSearchProperties properties, String index, String routing,
+                                           Q searchEntity, PageVo pageVo, @Nullable Class<?> clazz, @Nullable SliceBuilder slice) {
+        SearchRequest searchRequest = new SearchRequest(index);
+        searchRequest.searchType(SearchType.DEFAULT);
+        searchRequest.scroll(new Scroll(TimeValue.timeValueMillis(properties.getScrollKeepAlive())));
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+        putMultiConditionFields(searchEntity, sourceBuilder);
+        PropertyMapper.get().from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis)
+                .to(sourceBuilder::timeout);
+        if(!StringUtils.isEmpty(routing)){
+            searchRequest.routing(routing);
+        }
+        sourceBuilder.size(pageVo.getSize()).sort(FieldSortBuilder.DOC_FIELD_NAME);
+        sourceBuilder.fetchSource(fetchSource(properties, clazz, pageVo.getIncludes(), pageVo.getExcludes()));
+        if(slice != null){
+            sourceBuilder.slice(slice);
+        }
+        searchRequest.source(sourceBuilder);
+        return searchRequest;
+    }
+
+    public static <Q> SearchRequest searchAfter(ElasticsearchSearchProperties properties, String index, String routing,
+                                                Q searchEntity, CursorPageVo pageVo, @Nullable Class<?> clazz) {
+        SearchRequest searchRequest = new SearchRequest(index);
+        searchRequest.searchType(SearchType.DEFAULT);
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+        putMultiConditionFields(searchEntity, sourceBuilder);
+        PropertyMapper.get().from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis)
+                .to(sourceBuilder::timeout);
+        if(!StringUtils.isEmpty(routing)){
+            searchRequest.routing(routing);
+        }
+        String tiebreaker = cursorTiebreaker(properties, clazz);
+        sourceBuilder.size(pageVo.getSize());
+        if(StringUtils.isEmpty(pageVo.getSort()) || tiebreaker.equals(pageVo.getSort())){
+            sourceBuilder.sort(tiebreaker, pageVo.getOrder());
+        }else{
+            sourceBuilder.sort(pageVo.getSort(), pageVo.getOrder()).sort(tiebreaker, SortOrder.ASC);
+        }
+        if(!StringUtils.isEmpty(pageVo.getCursor())){
+            sourceBuilder.searchAfter(SearchCursors.decode(pageVo.getCursor()));
+            sourceBuilder.trackTotalHits(false);
+        }
+        sourceBuilder.fetchSource(fetchSource(properties, clazz, pageVo.getIncludes(), pageVo.getExcludes()));
+        searchRequest.source(sourceBuilder);
+        return searchRequest;
+    }
+
+    public static <Q> MultiSearchRequest msearch(ElasticsearchSearchProperties properties, String index, String routing,
+                                                 List<Q> searchEntities, PageVo pageVo, @Nullable Class<?> clazz) {
+        FetchSourceContext fetchSource = fetchSource(properties, clazz, pageVo.getIncludes(), pageVo.getExcludes());
+        SearchType searchType = StringUtils.hasText(properties.getSearchType())
+                ? SearchType.fromString(properties.getSearchType()) : SearchType.QUERY_THEN_FETCH;
+        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        PropertyMapper.get().from(properties::getMaxConcurrentSearchRequests).whenNonNull()
+                .to(multiSearchRequest::maxConcurrentSearchRequests);
+        searchEntities.stream().forEach(searchEntity ->{
+            SearchRequest searchRequest = new SearchRequest(index);
+            searchRequest.searchType(searchType);
+            SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+            sourceBuilder.fetchSource(fetchSource);
+            putMultiConditionFields(searchEntity, sourceBuilder);
+            PropertyMapper.get().from(properties::getTimeout).whenNonNull().as(TimeValue::timeValueMillis)
+                    .to(sourceBuilder::timeout);
+            if(!StringUtils.isEmpty(routing)){
+                searchRequest.routing(routing);
+            }
+            sourceBuilder.from(pageVo.getFrom()).size(pageVo.getSize());
+            searchRequest.source(sourceBuilder);
+            multiSearchRequest.add(searchRequest);
+        });
+        return multiSearchRequest;
+    }
+
+    /**
+     * Build the multi search requests of search entities, split every
+     * {@link ElasticsearchSearchProperties#getMsearchBatchSize()} queries.
+     */
+    public static <Q> List<MultiSearchRequest> msearchChunks(ElasticsearchSearchProperties properties, String index, String routing,
+                                                             List<Q> searchEntities, PageVo pageVo, @Nullable Class<?> clazz) {
+        int batchSize = properties.getMsearchBatchSize() == null || properties.getMsearchBatchSize() <= 0
+                ? Math.max(1, searchEntities.size()) : properties.getMsearchBatchSize();
+        List<MultiSearchRequest> requests = new ArrayList<>();
+        for (int from = 0; from < searchEntities.size(); from += batchSize) {
+            List<Q> chunk = searchEntities.subList(from, Math.min(searchEntities.size(), from + batchSize));
+            requests.add(msearch(properties, index, routing, chunk, pageVo, clazz));
+        }
+        return requests;
+    }
+
+    /**
+     * Routing of entity, its routing field value when set and the routing argument otherwise.
+     */
+    private static String routing(DocumentAccessor accessor, String routing, Object entity) {
+        String documentRouting = accessor.routing(entity);
+        return StringUtils.isEmpty(documentRouting) ? routing : documentRouting;
+    }
+
+    private static WriteRequest.RefreshPolicy refreshPolicy(ElasticsearchRequestProperties properties, @Nullable WriteProfile profile) {
+        if(profile != null){
+            return profile.getRefreshPolicy();
+        }
+        return StringUtils.hasText(properties.getRefreshPolicy()) ? WriteRequest.RefreshPolicy.parse(properties.getRefreshPolicy()) : null;
+    }
+
+    private static ActiveShardCount activeShards(ElasticsearchRequestProperties properties, @Nullable WriteProfile profile) {
+        if(profile != null && profile.getActiveShards() != null){
+            return profile.getActiveShards();
+        }
+        return properties.getWaitForActiveShards() == null ? null : ActiveShardCount.from(properties.getWaitForActiveShards());
+    }
+
+    /**
+     * Resolve the search after tie breaker, the {@link Id} field of the result class or the configured
+     * tie breaker field. {@code _id} is not used, it has no doc values and sorting on it loads fielddata.
+     */
+    private static String cursorTiebreaker(ElasticsearchSearchProperties properties, @Nullable Class<?> clazz) {
+        String tiebreaker = clazz == null ? null : DocumentAccessor.of(clazz).idField();
+        if(StringUtils.isEmpty(tiebreaker)){
+            tiebreaker = properties.getCursorTiebreaker();
+        }
+        if(StringUtils.isEmpty(tiebreaker)){
+            throw new ElasticsearchException("search after requires a unique keyword tie breaker field, annotate the id field of "
+                    + (clazz == null ? "the result class" : clazz.getName())
+                    + " with @Id or set spring.boot.elasticsearch.search.cursor-tiebreaker", 400);
+        }
+        return tiebreaker;
+    }
+
+    /**
+     * Resolve the _source projection of one search, see {@link SourceProjection}.
+     */
+    private static FetchSourceContext fetchSource(ElasticsearchSearchProperties properties, @Nullable Class<?> clazz,
+                                                  String[] includes, String[] excludes) {
+        return SourceProjection.resolve(Boolean.TRUE.equals(properties.getProjection()), clazz, includes, excludes);
+    }
+
+    public static <Q> void putMultiConditionFields(Q searchEntity, SearchSourceBuilder sourceBuilder) {
+        if (sourceBuilder != null && searchEntity != null) {
+            sourceBuilder.query(QueryPlan.of(searchEntity.getClass()).compile(searchEntity));
+        }
+    }
+
+}
@@ -0,0 +1,347 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.annotation.JSONField;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ObjectUtils;
+import spring.boot.elasticsearch.annotations.DateFormat;
+import spring.boot.elasticsearch.annotations.Document;
+import spring.boot.elasticsearch.annotations.Field;
+import spring.boot.elasticsearch.annotations.FieldType;
+import spring.boot.elasticsearch.annotations.Id;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+import spring.boot.elasticsearch.exception.ElasticsearchMappingException;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * Compiled index settings and mapping of a {@link Document} annotated class. The settings come
+ * from the {@link Document} attributes and the mapping from the {@link Field} annotated fields
+ * of the class and its super classes, both are built once per class and cached as bytes. Fields
+ * are mapped under the names fastjson writes them with, object types already being mapped higher
+ * up the same path are left to dynamic mapping.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class IndexMapping {
+
+    /**
+     * Index mapping per document class.
+     */
+    private static final ClassValue<IndexMapping> MAPPINGS = new ClassValue<IndexMapping>() {
+        @Override
+        protected IndexMapping computeValue(Class<?> type) {
+            return new IndexMapping(type);
+        }
+    };
+
+    private static final Set<Class<?>> INTEGERS = new HashSet<>(Arrays.asList(
+            int.class, Integer.class, short.class, Short.class, byte.class, Byte.class));
+
+    private final Document document;
+
+    private final String type;
+
+    private final Settings settings;
+
+    /**
+     * Compiled mapping source of the type.
+     */
+    private final BytesReference mapping;
+
+    private IndexMapping(Class<?> documentClass) {
+        this.document = documentClass.getAnnotation(Document.class);
+        if (document == null) {
+            throw new ElasticsearchMappingException();
+        }
+        this.type = ElasticsearchRequests.type(document.type());
+        Settings.Builder builder = Settings.builder();
+        if (!document.useServerConfiguration()) {
+            builder.put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, document.shards())
+                    .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, document.replicas())
+                    .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), document.refreshInterval())
+                    .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), document.indexStoreType());
+        }
+        this.settings = builder.build();
+        try {
+            XContentBuilder mappingBuilder = JsonXContent.contentBuilder().startObject().startObject(type);
+            properties(mappingBuilder, documentClass, new String[0], new HashSet<>());
+            this.mapping = BytesReference.bytes(mappingBuilder.endObject().endObject());
+        } catch (IOException e) {
+            throw new ElasticsearchMappingException();
+        }
+    }
+
+    /**
+     * Get the cached index mapping of document class.
+     * @param documentClass {@link Document} annotated class.
+     * @return index mapping.
+     * @throws ElasticsearchMappingException the class is not annotated or can not be mapped.
+     */
+    public static IndexMapping of(Class<?> documentClass) throws ElasticsearchMappingException {
+        return MAPPINGS.get(documentClass);
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public String getIndex() {
+        return document.indexName();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public BytesReference getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Build the create index request, the configured index settings are overridden by the document settings.
+     * @param properties Elasticsearch properties.
+     * @return create index request.
+     */
+    public CreateIndexRequest request(ElasticsearchProperties properties) {
+        Settings.Builder builder = Settings.builder();
+        PropertyMapper.get().from(properties::getIndex).whenNonNull().to(index -> index.forEach(builder::put));
+        builder.put(settings);
+        return new CreateIndexRequest(getIndex()).settings(builder).mapping(type, mapping, XContentType.JSON);
+    }
+
+    private static void properties(XContentBuilder builder, Class<?> type, String[] ignoreFields, Set<Class<?>> visiting)
+            throws IOException {
+        visiting.add(type);
+        builder.startObject("properties");
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (java.lang.reflect.Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                JSONField jsonField = field.getAnnotation(JSONField.class);
+                if (jsonField != null && !jsonField.serialize()) {
+                    continue;
+                }
+                Field mappedField = field.getAnnotation(Field.class);
+                String name = name(field, jsonField, mappedField);
+                if (ObjectUtils.containsElement(ignoreFields, name)) {
+                    continue;
+                }
+                Map<String, Object> attributes = attributes(field, mappedField);
+                FieldType fieldType = mappedField == null ? FieldType.Auto : mappedField.type();
+                if (fieldType == FieldType.Object || fieldType == FieldType.Nested) {
+                    builder.startObject(name);
+                    attributes.forEach((attribute, value) -> field(builder, attribute, value));
+                    Class<?> elementType = elementType(field);
+                    if (!visiting.contains(elementType)) {
+                        properties(builder, elementType, mappedField.ignoreFields(), visiting);
+                    }
+                    builder.endObject();
+                } else if (!attributes.isEmpty()) {
+                    builder.startObject(name);
+                    attributes.forEach((attribute, value) -> field(builder, attribute, value));
+                    builder.endObject();
+                }
+            }
+        }
+        builder.endObject();
+        visiting.remove(type);
+    }
+
+    /**
+     * Mapping attributes of one field, empty when the field is left to dynamic mapping. The {@link Id}
+     * field defaults to keyword, it is the doc values tie breaker of search after cursors.
+     */
+    private static Map<String, Object> attributes(java.lang.reflect.Field field, Field mappedField) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        boolean id = field.isAnnotationPresent(Id.class);
+        if (mappedField == null) {
+            if (id) {
+                attributes.put("type", "keyword");
+            }
+            return attributes;
+        }
+        String type = mappedField.type() != FieldType.Auto ? type(field, mappedField.type())
+                : id ? "keyword" : infer(elementType(field));
+        if (type == null) {
+            return attributes;
+        }
+        attributes.put("type", type);
+        if (!mappedField.index()) {
+            attributes.put("index", false);
+        }
+        if (mappedField.format() == DateFormat.custom) {
+            attributes.put("format", mappedField.pattern());
+        } else if (mappedField.format() != DateFormat.none) {
+            attributes.put("format", format(mappedField.format()));
+        }
+        if (mappedField.store()) {
+            attributes.put("store", true);
+        }
+        if (mappedField.fielddata()) {
+            attributes.put("fielddata", true);
+        }
+        if (!mappedField.analyzer().isEmpty()) {
+            attributes.put("analyzer", mappedField.analyzer());
+        }
+        if (!mappedField.searchAnalyzer().isEmpty()) {
+            attributes.put("search_analyzer", mappedField.searchAnalyzer());
+        }
+        if (!mappedField.normalizer().isEmpty()) {
+            attributes.put("normalizer", mappedField.normalizer());
+        }
+        if (mappedField.copyTo().length > 0) {
+            attributes.put("copy_to", mappedField.copyTo());
+        }
+        if (mappedField.includeInParent() && mappedField.type() == FieldType.Nested) {
+            attributes.put("include_in_parent", true);
+        }
+        return attributes;
+    }
+
+    /**
+     * Elasticsearch type of an explicit field type.
+     */
+    private static String type(java.lang.reflect.Field field, FieldType fieldType) {
+        switch (fieldType) {
+            case Text:
+                return "text";
+            case Keyword:
+                return "keyword";
+            case Integer:
+                return "integer";
+            case Long:
+                return "long";
+            case Float:
+                return "float";
+            case Double:
+                return "double";
+            case Boolean:
+                return "boolean";
+            case Date:
+                return "date";
+            case Ip:
+                return "ip";
+            case Object:
+                return "object";
+            case Nested:
+                return "nested";
+            default:
+                throw new ElasticsearchMappingException("Elasticsearch 6 has no " + fieldType + " field type, field: "
+                        + field.getDeclaringClass().getName() + "." + field.getName(), 400);
+        }
+    }
+
+    /**
+     * Elasticsearch built in date format name, the camel case constants are named differently by Elasticsearch.
+     */
+    private static String format(DateFormat format) {
+        switch (format) {
+            case weekDateTimeNoMillis:
+                return "week_date_time_no_millis";
+            case week_year:
+                return "weekyear";
+            case weekyearWeek:
+                return "weekyear_week";
+            case weekyearWeekDay:
+                return "weekyear_week_day";
+            default:
+                return format.name();
+        }
+    }
+
+    /**
+     * Infer the Elasticsearch type of an {@link FieldType#Auto} field, null when left to dynamic mapping.
+     */
+    private static String infer(Class<?> type) {
+        if (type == String.class || type.isEnum()) {
+            return "text";
+        }
+        if (INTEGERS.contains(type)) {
+            return "integer";
+        }
+        if (type == long.class || type == Long.class || type == BigInteger.class) {
+            return "long";
+        }
+        if (type == float.class || type == Float.class) {
+            return "float";
+        }
+        if (type == double.class || type == Double.class || type == BigDecimal.class) {
+            return "double";
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return "boolean";
+        }
+        if (Date.class.isAssignableFrom(type) || Temporal.class.isAssignableFrom(type)) {
+            return "date";
+        }
+        return null;
+    }
+
+    /**
+     * Element class of array and collection fields, the field class otherwise.
+     */
+    private static Class<?> elementType(java.lang.reflect.Field field) {
+        Class<?> type = field.getType();
+        if (type.isArray()) {
+            return type.getComponentType();
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            Class<?> element = ResolvableType.forField(field).asCollection().resolveGeneric(0);
+            return element == null ? Object.class : element;
+        }
+        return type;
+    }
+
+    /**
+     * Document field name as written by fastjson, a {@link Field#name()} fastjson would not write is rejected
+     * rather than mapped under a name the documents never carry.
+     */
+    private static String name(java.lang.reflect.Field field, JSONField jsonField, Field mappedField) {
+        String name = jsonField != null && !jsonField.name().isEmpty() ? jsonField.name() : field.getName();
+        String mappedName = mappedField == null ? "" : !mappedField.name().isEmpty() ? mappedField.name() : mappedField.value();
+        if (!mappedName.isEmpty() && !mappedName.equals(name)) {
+            throw new ElasticsearchMappingException("Elasticsearch field " + field.getDeclaringClass().getName() + "."
+                    + field.getName() + " is written as " + name + " not " + mappedName + ", rename it with @JSONField(name)", 400);
+        }
+        return name;
+    }
+
+    private static void field(XContentBuilder builder, String name, Object value) {
+        try {
+            builder.field(name, value);
+        } catch (IOException e) {
+            throw new ElasticsearchMappingException();
+        }
+    }
+
+}
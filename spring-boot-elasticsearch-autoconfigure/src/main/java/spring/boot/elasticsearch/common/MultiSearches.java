@@ -0,0 +1,61 @@
+package spring.boot.elasticsearch.common;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *
+ * Sends the chunks of a large multi search concurrently, at most parallelism chunks are in
+ * flight and every lane sends its next chunk once the previous one answered.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class MultiSearches {
+
+    private MultiSearches() {
+    }
+
+    /**
+     * Send multi search chunks.
+     * @param restClient Elasticsearch rest high level client.
+     * @param requests multi search chunks.
+     * @param parallelism max chunks in flight.
+     * @return future of the responses in chunk order.
+     */
+    public static CompletableFuture<List<MultiSearchResponse>> execute(RestHighLevelClient restClient,
+                                                                       List<MultiSearchRequest> requests, int parallelism) {
+        MultiSearchResponse[] responses = new MultiSearchResponse[requests.size()];
+        int lanes = Math.max(1, Math.min(parallelism, requests.size()));
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            futures[lane] = lane(restClient, requests, responses, lane, lanes);
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> new ArrayList<>(Arrays.asList(responses)));
+    }
+
+    private static CompletableFuture<Void> lane(RestHighLevelClient restClient, List<MultiSearchRequest> requests,
+                                                MultiSearchResponse[] responses, int position, int lanes) {
+        if (position >= requests.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<MultiSearchResponse> future = new CompletableFuture<>();
+        restClient.msearchAsync(requests.get(position), RequestOptions.DEFAULT,
+                ActionListener.wrap(future::complete, future::completeExceptionally));
+        return future.thenCompose(response -> {
+            responses[position] = response;
+            return lane(restClient, requests, responses, position + lanes, lanes);
+        });
+    }
+
+}
@@ -0,0 +1,84 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import spring.boot.elasticsearch.config.ElasticsearchLoggingProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *
+ * Lazily serialized log argument, the argument is only serialized when the log line
+ * is written, argument logging is enabled for the operation and the line is sampled.
+ * Collections are cut to the configured max items and the output to the max length.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class Payload {
+
+    private final ElasticsearchLoggingProperties properties;
+
+    private final String operation;
+
+    private final Object argument;
+
+    private Payload(ElasticsearchLoggingProperties properties, String operation, Object argument) {
+        this.properties = properties;
+        this.operation = operation;
+        this.argument = argument;
+    }
+
+    /**
+     * Wrap the log argument of operation.
+     * @param properties Elasticsearch logging properties.
+     * @param operation operation name.
+     * @param argument log argument.
+     * @return lazily serialized log argument.
+     */
+    public static Payload of(ElasticsearchLoggingProperties properties, String operation, Object argument) {
+        return new Payload(properties, operation, argument);
+    }
+
+    @Override
+    public String toString() {
+        if (argument == null) {
+            return "null";
+        }
+        if (!properties.isArguments(operation)
+                || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return summary();
+        }
+        Object sample = argument;
+        int more = 0;
+        if (argument instanceof Collection && ((Collection<?>) argument).size() > properties.getMaxItems()) {
+            Collection<?> collection = (Collection<?>) argument;
+            List<Object> items = new ArrayList<>(properties.getMaxItems());
+            Iterator<?> iterator = collection.iterator();
+            while (items.size() < properties.getMaxItems()) {
+                items.add(iterator.next());
+            }
+            sample = items;
+            more = collection.size() - items.size();
+        }
+        String json = JSON.toJSONStringWithDateFormat(sample, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect);
+        if (json.length() > properties.getMaxLength()) {
+            json = json.substring(0, properties.getMaxLength()) + "...(" + json.length() + " chars)";
+        }
+        return more > 0 ? json + "...(" + more + " more items)" : json;
+    }
+
+    private String summary() {
+        if (argument instanceof Collection) {
+            return "[" + ((Collection<?>) argument).size() + " items]";
+        }
+        return argument.getClass().getSimpleName();
+    }
+
+}
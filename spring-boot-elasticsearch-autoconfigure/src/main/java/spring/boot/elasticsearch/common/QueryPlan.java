@@ -0,0 +1,138 @@
+package spring.boot.elasticsearch.common;
+
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.springframework.util.StringUtils;
+import spring.boot.elasticsearch.annotations.Field;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * Compiled search entity query plan, field names, {@link Field} metadata and value
+ * accessors are resolved once per class and cached.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class QueryPlan {
+
+    /**
+     * Query plan per search entity class.
+     */
+    private static final ClassValue<QueryPlan> PLANS = new ClassValue<QueryPlan>() {
+        @Override
+        protected QueryPlan computeValue(Class<?> type) {
+            return new QueryPlan(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Query conditions in declared field order.
+     */
+    private final Condition[] conditions;
+
+    private QueryPlan(Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Condition> conditionList = new ArrayList<>();
+        for (java.lang.reflect.Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            Field scriptedField = field.getAnnotation(Field.class);
+            String name = scriptedField != null && !scriptedField.name().isEmpty() ? scriptedField.name() : field.getName();
+            boolean in = scriptedField != null && scriptedField.in();
+            try {
+                field.setAccessible(true);
+                conditionList.add(new Condition(name, in, lookup.unreflectGetter(field).asType(GETTER_TYPE)));
+            } catch (IllegalAccessException e) {
+                throw new ElasticsearchException("failed to access scripted field: " + name, e);
+            }
+        }
+        this.conditions = conditionList.toArray(new Condition[0]);
+    }
+
+    /**
+     * Get the cached query plan of search entity class.
+     * @param type search entity class.
+     * @return query plan.
+     */
+    public static QueryPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * Build the bool query of search entity, every non empty field becomes a must clause,
+     * {@link Field#in()} fields become a should clause per comma separated value.
+     * @param searchEntity search entity.
+     * @return bool query.
+     */
+    public BoolQueryBuilder compile(Object searchEntity) {
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        for (Condition condition : conditions) {
+            Object propertyValue = condition.get(searchEntity);
+            if (StringUtils.isEmpty(propertyValue)) {
+                continue;
+            }
+            if (condition.in) {
+                String [] propValues = null;
+                if (propertyValue instanceof String[]) {
+                    propValues = (String []) propertyValue;
+                } else if (propertyValue instanceof String) {
+                    if (((String) propertyValue).indexOf(",") != -1) {
+                        propValues = ((String) propertyValue).split(",");
+                    }
+                } else {
+                    propValues = new String[]{ String.valueOf(propertyValue) };
+                }
+                if (propValues != null) {
+                    BoolQueryBuilder childBoolQueryBuilder = QueryBuilders.boolQuery();
+                    for (String propValue : propValues) {
+                        childBoolQueryBuilder.should(QueryBuilders.termsQuery(condition.name, propValue));
+                    }
+                    boolQueryBuilder.must(childBoolQueryBuilder);
+                }
+            } else {
+                boolQueryBuilder.must(QueryBuilders.matchQuery(condition.name, propertyValue));
+            }
+        }
+        return boolQueryBuilder;
+    }
+
+    /**
+     * One search entity field condition.
+     */
+    private static final class Condition {
+
+        private final String name;
+
+        private final boolean in;
+
+        private final MethodHandle getter;
+
+        private Condition(String name, boolean in, MethodHandle getter) {
+            this.name = name;
+            this.in = in;
+            this.getter = getter;
+        }
+
+        private Object get(Object searchEntity) {
+            try {
+                return (Object) getter.invokeExact(searchEntity);
+            } catch (Throwable e) {
+                throw new ElasticsearchException("failed to access scripted field: " + name, e);
+            }
+        }
+    }
+
+}
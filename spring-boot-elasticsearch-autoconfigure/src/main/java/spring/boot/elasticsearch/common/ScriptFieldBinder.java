@@ -0,0 +1,124 @@
+package spring.boot.elasticsearch.common;
+
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.SearchHit;
+import spring.boot.elasticsearch.annotations.Field;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Compiled result class script field binder, the {@link Field} annotated fields, their
+ * names and setters are resolved once per class and cached.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class ScriptFieldBinder {
+
+    /**
+     * Script field binder per result class.
+     */
+    private static final ClassValue<ScriptFieldBinder> BINDERS = new ClassValue<ScriptFieldBinder>() {
+        @Override
+        protected ScriptFieldBinder computeValue(Class<?> type) {
+            return new ScriptFieldBinder(type);
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Script field bindings in declared field order.
+     */
+    private final Binding[] bindings;
+
+    private ScriptFieldBinder(Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Binding> bindingList = new ArrayList<>();
+        for (java.lang.reflect.Field field : type.getDeclaredFields()) {
+            Field scriptedField = field.getAnnotation(Field.class);
+            if (scriptedField == null) {
+                continue;
+            }
+            String name = scriptedField.name().isEmpty() ? field.getName() : scriptedField.name();
+            try {
+                field.setAccessible(true);
+                bindingList.add(new Binding(name, lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+            } catch (IllegalAccessException e) {
+                throw new ElasticsearchException("failed to access scripted field: " + name, e);
+            }
+        }
+        this.bindings = bindingList.toArray(new Binding[0]);
+    }
+
+    /**
+     * Get the cached script field binder of result class.
+     * @param type result class.
+     * @return script field binder.
+     */
+    public static ScriptFieldBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Whether the result class has no script field.
+     * @return true when no field is annotated.
+     */
+    public boolean isEmpty() {
+        return bindings.length == 0;
+    }
+
+    /**
+     * Set every script field found in the hit fields to result entity.
+     * @param result result entity.
+     * @param hit search hit.
+     */
+    public void bind(Object result, SearchHit hit) {
+        Map<String, DocumentField> fields = hit.getFields();
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+        for (Binding binding : bindings) {
+            DocumentField searchHitField = fields.get(binding.name);
+            if (searchHitField != null) {
+                binding.set(result, searchHitField.getValue());
+            }
+        }
+    }
+
+    /**
+     * One script field binding.
+     */
+    private static final class Binding {
+
+        private final String name;
+
+        private final MethodHandle setter;
+
+        private Binding(String name, MethodHandle setter) {
+            this.name = name;
+            this.setter = setter;
+        }
+
+        private void set(Object result, Object value) {
+            try {
+                setter.invokeExact(result, value);
+            } catch (ClassCastException e) {
+                throw new ElasticsearchException(
+                        "failed to set scripted field: " + name + " with value: " + value, e);
+            } catch (Throwable e) {
+                throw new ElasticsearchException("failed to access scripted field: " + name, e);
+            }
+        }
+    }
+
+}
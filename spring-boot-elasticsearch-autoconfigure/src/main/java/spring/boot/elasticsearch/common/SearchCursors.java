@@ -0,0 +1,97 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.JSON;
+import org.elasticsearch.common.text.Text;
+import spring.boot.elasticsearch.exception.ElasticsearchSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ *
+ * Encodes search after sort values to opaque, url safe continuation cursors and back,
+ * every value keeps its type so that numeric sort values round trip exactly.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class SearchCursors {
+
+    private SearchCursors() {
+    }
+
+    public static String encode(Object[] sortValues) {
+        List<String> values = new ArrayList<>(sortValues.length);
+        for (Object value : sortValues) {
+            if (value == null) {
+                values.add("n");
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                values.add("l" + value);
+            } else if (value instanceof Double || value instanceof Float) {
+                values.add("d" + value);
+            } else if (value instanceof Boolean) {
+                values.add("b" + value);
+            } else {
+                values.add("s" + (value instanceof Text ? ((Text) value).string() : value.toString()));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.toJSONBytes(values));
+    }
+
+    /**
+     * Decode a cursor sent back by a client.
+     * @param cursor continuation cursor.
+     * @return search after sort values.
+     * @throws ElasticsearchSearchException 400, the cursor was not produced by {@link #encode(Object[])}.
+     */
+    public static Object[] decode(String cursor) {
+        try {
+            List<String> values = JSON.parseArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), String.class);
+            if (values == null || values.isEmpty()) {
+                throw invalid();
+            }
+            Object[] sortValues = new Object[values.size()];
+            for (int i = 0; i < sortValues.length; i++) {
+                sortValues[i] = value(values.get(i));
+            }
+            return sortValues;
+        } catch (ElasticsearchSearchException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    private static Object value(String value) {
+        if (value == null || value.isEmpty()) {
+            throw invalid();
+        }
+        String text = value.substring(1);
+        switch (value.charAt(0)) {
+            case 'l':
+                return Long.valueOf(text);
+            case 'd':
+                return Double.valueOf(text);
+            case 'b':
+                if (!"true".equals(text) && !"false".equals(text)) {
+                    throw invalid();
+                }
+                return Boolean.valueOf(text);
+            case 'n':
+                return null;
+            case 's':
+                return text;
+            default:
+                throw invalid();
+        }
+    }
+
+    private static ElasticsearchSearchException invalid() {
+        return new ElasticsearchSearchException("Elasticsearch search cursor is invalid.", 400);
+    }
+
+}
@@ -0,0 +1,112 @@
+package spring.boot.elasticsearch.common;
+
+import com.alibaba.fastjson.annotation.JSONField;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.springframework.util.ObjectUtils;
+
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * Result class {@code _source} projection, the source field names of the result class and
+ * its super classes are resolved once per class and cached, so that only the fields the
+ * result class can hold are fetched. The names cover the fields, setter only properties and the
+ * fastjson and Jackson renames of the result class, the fastjson smart match of differently cased
+ * or underscored source names is not covered, so the projection is opt in.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class SourceProjection {
+
+    /**
+     * Fetch source context per result class, null when the whole source is fetched.
+     */
+    private static final ClassValue<FetchSourceContext> PROJECTIONS = new ClassValue<FetchSourceContext>() {
+        @Override
+        protected FetchSourceContext computeValue(Class<?> type) {
+            return project(type);
+        }
+    };
+
+    private SourceProjection() {
+    }
+
+    /**
+     * Resolve the fetch source context of one search, explicit includes or excludes take
+     * precedence over the result class projection.
+     * @param projection whether to derive the projection from the result class.
+     * @param type result class.
+     * @param includes explicit source includes.
+     * @param excludes explicit source excludes.
+     * @return fetch source context, null to fetch the whole source.
+     */
+    public static FetchSourceContext resolve(boolean projection, Class<?> type, String[] includes, String[] excludes) {
+        if (!ObjectUtils.isEmpty(includes) || !ObjectUtils.isEmpty(excludes)) {
+            return new FetchSourceContext(true, includes, excludes);
+        }
+        return projection && type != null ? PROJECTIONS.get(type) : null;
+    }
+
+    private static FetchSourceContext project(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || Map.class.isAssignableFrom(type)
+                || type.getName().startsWith("java.")) {
+            return null;
+        }
+        Set<String> includes = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (java.lang.reflect.Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                JSONField jsonField = field.getAnnotation(JSONField.class);
+                if (jsonField != null && !jsonField.deserialize()) {
+                    continue;
+                }
+                includes.add(field.getName());
+                names(includes, jsonField, field.getAnnotation(JsonProperty.class));
+            }
+        }
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                    || method.getName().length() <= 3 || !method.getName().startsWith("set")) {
+                continue;
+            }
+            JSONField jsonField = method.getAnnotation(JSONField.class);
+            if (jsonField != null && !jsonField.deserialize()) {
+                continue;
+            }
+            includes.add(Introspector.decapitalize(method.getName().substring(3)));
+            names(includes, jsonField, method.getAnnotation(JsonProperty.class));
+        }
+        if (includes.isEmpty()) {
+            return null;
+        }
+        return new FetchSourceContext(true, includes.toArray(new String[0]), null);
+    }
+
+    /**
+     * Add the fastjson and Jackson renames of one property.
+     */
+    private static void names(Set<String> includes, JSONField jsonField, JsonProperty jsonProperty) {
+        if (jsonField != null) {
+            if (!jsonField.name().isEmpty()) {
+                includes.add(jsonField.name());
+            }
+            includes.addAll(Arrays.asList(jsonField.alternateNames()));
+        }
+        if (jsonProperty != null && !jsonProperty.value().isEmpty()) {
+            includes.add(jsonProperty.value());
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package spring.boot.elasticsearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration Bulk ingestion pipeline properties for Boot Elasticsearch REST clients.
+ *
+ * @author OAK
+ * @since 2019/06/24 19:22:00 PM.
+ * @version 1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.boot.elasticsearch.bulk")
+public class ElasticsearchBulkProperties {
+
+    /**
+     * Whether to register the asynchronous bulk ingestion pipeline.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Flush the buffered requests once this many documents have been added.
+     */
+    private Integer actions = 1000;
+
+    /**
+     * Flush the buffered requests once their size reaches this value.
+     */
+    private DataSize size = DataSize.ofMegabytes(5);
+
+    /**
+     * Flush the buffered requests at this interval regardless of count or size.
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * Number of bulk requests allowed in flight while new documents are buffered,
+     * callers block once this many requests are outstanding.
+     */
+    private Integer concurrentRequests = 4;
+
+    /**
+     * Initial delay of the exponential backoff applied to rejected bulk requests.
+     */
+    private Duration backoffDelay = Duration.ofMillis(100);
+
+    /**
+     * Max retries of the exponential backoff applied to rejected bulk requests.
+     */
+    private Integer backoffRetries = 3;
+
+    /**
+     * Max time to wait for in flight bulk requests when the pipeline is closed.
+     */
+    private Duration awaitTermination = Duration.ofSeconds(30);
+
+    /**
+     * Adaptive batching of synchronous bulk calls.
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * Micro-batching of concurrent single document updates.
+     */
+    private Updates updates = new Updates();
+
+    /**
+     * Direct NDJSON encoding of bulk requests into pooled buffers.
+     */
+    private Encoder encoder = new Encoder();
+
+    @Data
+    public static class Adaptive {
+
+        /**
+         * Whether to split large bulk calls into sub-batches sized from observed cluster latency and rejections.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Lower bound of the documents per sub-batch.
+         */
+        private Integer minActions = 100;
+
+        /**
+         * Upper bound of the documents per sub-batch.
+         */
+        private Integer maxActions = 10000;
+
+        /**
+         * Lower bound of the sub-batch size.
+         */
+        private DataSize minSize = DataSize.ofMegabytes(1);
+
+        /**
+         * Upper bound of the sub-batch size.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(15);
+
+        /**
+         * Upper bound of the sub-batches sent concurrently.
+         */
+        private Integer maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Sub-batch took time the controller steers towards, slower batches shrink the next ones.
+         */
+        private Duration targetLatency = Duration.ofSeconds(1);
+
+    }
+
+    @Data
+    public static class Updates {
+
+        /**
+         * Whether to gather concurrent update calls of one index into bulk requests.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max time an update waits for other updates before its batch is sent.
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        /**
+         * Max updates per batch, a full batch is sent before its window ends.
+         */
+        private Integer maxActions = 500;
+
+        /**
+         * Max batches sent concurrently once their window ended, full batches are sent by the caller filling them.
+         */
+        private Integer concurrency = Runtime.getRuntime().availableProcessors();
+
+    }
+
+    @Data
+    public static class Encoder {
+
+        /**
+         * Whether to encode bulk requests into pooled buffers sent by the low-level REST client.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max idle buffers kept for reuse.
+         */
+        private Integer poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Initial size of a new buffer, buffers grow with the encoded bulk requests.
+         */
+        private DataSize initialBufferSize = DataSize.ofKilobytes(64);
+
+        /**
+         * Buffers grown beyond this size are released instead of pooled, buffers double as they grow so
+         * the default keeps the buffers of the default flush size.
+         */
+        private DataSize maxPooledBufferSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Max summed size of the idle buffers, released buffers beyond it are not pooled.
+         */
+        private DataSize maxPooledBytes = DataSize.ofMegabytes(32);
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package spring.boot.elasticsearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration Search result cache properties for AWS Elasticsearch REST clients.
+ *
+ * @author OAK
+ * @since 2019/06/24 19:22:00 PM.
+ * @version 1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.boot.elasticsearch.cache")
+public class ElasticsearchCacheProperties {
+
+    /**
+     * Whether to cache search and multi search results, cached entities are shared between callers and read-only.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Max cached results.
+     */
+    private Integer maxEntries = 10000;
+
+    /**
+     * Max summed _source size of the cached results.
+     */
+    private DataSize maxWeight = DataSize.ofMegabytes(64);
+
+    /**
+     * Default time to live of cached results.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Time to live of cached results per index, overrides the default time to live.
+     */
+    private Map<String, Duration> indexTtl = new HashMap<>();
+
+}
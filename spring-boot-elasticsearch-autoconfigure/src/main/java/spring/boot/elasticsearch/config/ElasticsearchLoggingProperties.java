@@ -0,0 +1,65 @@
+package spring.boot.elasticsearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration Logging properties for AWS Elasticsearch REST clients.
+ *
+ * @author OAK
+ * @since 2019/06/24 19:22:00 PM.
+ * @version 1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.boot.elasticsearch.logging")
+public class ElasticsearchLoggingProperties {
+
+    /**
+     * Whether request arguments are serialized into log lines by default.
+     */
+    private boolean arguments = false;
+
+    /**
+     * Per operation override of arguments logging, keyed by operation name
+     * such as bulk, update, delete, search, scroll, msearch, create.
+     */
+    private Map<String, Boolean> operations = new HashMap<>();
+
+    /**
+     * Max characters of one serialized argument, longer payloads are truncated.
+     */
+    private Integer maxLength = 1024;
+
+    /**
+     * Max elements of a collection argument serialized.
+     */
+    private Integer maxItems = 10;
+
+    /**
+     * Ratio of log lines whose arguments are serialized, between 0 and 1.
+     */
+    private Double sampleRate = 1.0D;
+
+    /**
+     * Service calls slower than this threshold in milliseconds are logged at warn level.
+     */
+    private Integer slowThreshold = 1000;
+
+    /**
+     * Ratio of the other service calls traced at debug level, between 0 and 1.
+     */
+    private Double traceSampleRate = 0.01D;
+
+    /**
+     * Whether arguments of operation are serialized into log lines.
+     * @param operation operation name.
+     * @return whether arguments are logged.
+     */
+    public boolean isArguments(String operation) {
+        return operations.getOrDefault(operation, arguments);
+    }
+
+}
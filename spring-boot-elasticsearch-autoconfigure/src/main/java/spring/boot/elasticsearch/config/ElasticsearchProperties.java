@@ -2,8 +2,8 @@ package spring.boot.elasticsearch.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -14,7 +14,6 @@ import java.util.*;
  * @version 1.0
  */
 @Data
-@Component
 @ConfigurationProperties(prefix = "spring.boot.elasticsearch.elasticsearch")
 public class ElasticsearchProperties {
 
@@ -23,4 +22,15 @@ public class ElasticsearchProperties {
      */
     private Map<String, String> index;
 
+    /**
+     * Create the missing indices of the {@link spring.boot.elasticsearch.annotations.Document} annotated classes
+     * of the auto-configuration packages at startup.
+     */
+    private boolean initializeIndices = false;
+
+    /**
+     * Max time the startup waits for the missing indices to be created, the remaining creations go on in background.
+     */
+    private Duration initializeTimeout = Duration.ofSeconds(30);
+
 }
@@ -2,7 +2,6 @@ package spring.boot.elasticsearch.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
 
 /**
  * Configuration Request properties for AWS Elasticsearch REST clients.
@@ -12,7 +11,6 @@ import org.springframework.stereotype.Component;
  * @version 1.0
  */
 @Data
-@Component
 @ConfigurationProperties(prefix = "spring.boot.elasticsearch.request")
 public class ElasticsearchRequestProperties {
 
@@ -31,4 +29,35 @@ public class ElasticsearchRequestProperties {
      */
     private Integer waitForActiveShards;
 
+    /**
+     * Elasticsearch bulk Request max retries of items rejected with a retryable status.
+     */
+    private Integer retries = 3;
+
+    /**
+     * Elasticsearch bulk Request initial retry backoff in milliseconds.
+     */
+    private Integer retryDelay = 100;
+
+    /**
+     * Elasticsearch bulk Request max retry backoff in milliseconds.
+     */
+    private Integer retryMaxDelay = 5000;
+
+    /**
+     * Elasticsearch bulk load session force merge max number of segments, not merged when not positive.
+     */
+    private Integer bulkLoadMaxNumSegments = 1;
+
+    /**
+     * Elasticsearch update Request retries on version conflict, server default when not set.
+     */
+    private Integer retryOnConflict;
+
+    /**
+     * Elasticsearch bulk Request op type of the entities with an id, index, create or update, entities
+     * without an id are always indexed.
+     */
+    private String bulkOpType = "index";
+
 }
@@ -2,7 +2,6 @@ package spring.boot.elasticsearch.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
 
 /**
  * Configuration Search properties for AWS Elasticsearch REST clients.
@@ -12,7 +11,6 @@ import org.springframework.stereotype.Component;
  * @version 1.0
  */
 @Data
-@Component
 @ConfigurationProperties(prefix = "spring.boot.elasticsearch.search")
 public class ElasticsearchSearchProperties {
 
@@ -21,4 +19,63 @@ public class ElasticsearchSearchProperties {
      */
     private Integer timeout;
 
+    /**
+     * Elasticsearch Scroll Request keep alive in milliseconds.
+     */
+    private Integer scrollKeepAlive = 60000;
+
+    /**
+     * Elasticsearch Sliced Scroll max slices pulled concurrently.
+     */
+    private Integer sliceParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Elasticsearch Search hit mapper, fastjson or jackson. Jackson parses the source bytes directly,
+     * fastjson decodes them into a String first.
+     */
+    private String hitMapper = "fastjson";
+
+    /**
+     * Elasticsearch Search fetch only the _source fields of the result class, off by default since the
+     * includes are derived from the declared fields and miss names the hit mapper resolves otherwise.
+     */
+    private Boolean projection = false;
+
+    /**
+     * Elasticsearch Search After tie breaker, a unique keyword field with doc values appended to every
+     * cursor sort when the result class has no {@link spring.boot.elasticsearch.annotations.Id} field.
+     */
+    private String cursorTiebreaker;
+
+    /**
+     * Elasticsearch Multi Search type, query_then_fetch or dfs_query_then_fetch.
+     */
+    private String searchType = "query_then_fetch";
+
+    /**
+     * Elasticsearch Multi Search max concurrent searches executed by the cluster, server default when not set.
+     */
+    private Integer maxConcurrentSearchRequests;
+
+    /**
+     * Elasticsearch Multi Search max queries per request, larger query lists are split into several requests.
+     */
+    private Integer msearchBatchSize = 100;
+
+    /**
+     * Elasticsearch Multi Search max split requests in flight.
+     */
+    private Integer msearchParallelism = 4;
+
+    /**
+     * Elasticsearch Search coalesce identical concurrent searches into one request, off by default since a
+     * search joining an in flight search may not see writes made after that search started.
+     */
+    private Boolean coalesce = false;
+
+    /**
+     * Elasticsearch Search coalesced max wait in milliseconds, a waiter sends its own search after it.
+     */
+    private Integer coalesceMaxWait = 5000;
+
 }
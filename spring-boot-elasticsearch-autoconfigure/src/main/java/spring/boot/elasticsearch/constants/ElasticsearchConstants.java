@@ -31,6 +31,11 @@ public interface ElasticsearchConstants {
      */
     Integer DEFAULT_PAGE_SIZE = 10000;
 
+    /**
+     * Elasticsearch settings default search after cursor page size.
+     */
+    Integer DEFAULT_CURSOR_PAGE_SIZE = 100;
+
     /**
      * Elasticsearch settings default document threshold.
      */
@@ -0,0 +1,55 @@
+package spring.boot.elasticsearch.constants;
+
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
+
+/**
+ *
+ * Elasticsearch write profiles, the refresh and durability settings of one write call.
+ *
+ *
+ * @author OAK
+ * @since 2019/06/25 14:22:00 PM.
+ * @version 1.0
+ */
+public enum WriteProfile {
+
+    /**
+     * Throughput first, never refreshes and only waits for the primary shard. Pair with a
+     * {@link spring.boot.elasticsearch.bulk.BulkLoadSession} to also suspend refreshes and replicas.
+     */
+    BULK_LOAD(WriteRequest.RefreshPolicy.NONE, ActiveShardCount.ONE),
+
+    /**
+     * Documents become visible with the next scheduled index refresh.
+     */
+    NEAR_REAL_TIME(WriteRequest.RefreshPolicy.NONE, null),
+
+    /**
+     * The call returns once a refresh made the documents visible to search, without forcing one.
+     */
+    READ_YOUR_WRITES(WriteRequest.RefreshPolicy.WAIT_UNTIL, null);
+
+    /**
+     * Refresh policy.
+     */
+    private WriteRequest.RefreshPolicy refreshPolicy;
+
+    /**
+     * Active shards to wait for, null to use the configured request setting.
+     */
+    private ActiveShardCount activeShards;
+
+    WriteProfile(WriteRequest.RefreshPolicy refreshPolicy, ActiveShardCount activeShards){
+        this.refreshPolicy = refreshPolicy;
+        this.activeShards = activeShards;
+    }
+
+    public WriteRequest.RefreshPolicy getRefreshPolicy() {
+        return refreshPolicy;
+    }
+
+    public ActiveShardCount getActiveShards() {
+        return activeShards;
+    }
+}
@@ -0,0 +1,38 @@
+package spring.boot.elasticsearch.mapper;
+
+import com.alibaba.fastjson.JSON;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.search.SearchHit;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * Fastjson hit mapper, skips the hit source map and the JSON String of the high-level client, but
+ * fastjson 1.2.x still decodes the source bytes into a String before parsing it. The
+ * {@link JacksonHitMapper} parses the bytes directly and is the recommended mapper for large results.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class FastjsonHitMapper implements HitMapper {
+
+    @Override
+    public <T> T map(SearchHit hit, Class<T> clazz) {
+        BytesReference source = hit.getSourceRef();
+        if (source == null || source.length() == 0) {
+            return null;
+        }
+        BytesRef bytes = source.toBytesRef();
+        try {
+            return JSON.parseObject(bytes.bytes, bytes.offset, bytes.length, StandardCharsets.UTF_8, clazz);
+        } catch (RuntimeException e) {
+            throw new ElasticsearchException("failed to map source of hit [" + hit.getId() + "] to class " + clazz.getSimpleName(), e);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package spring.boot.elasticsearch.mapper;
+
+import org.elasticsearch.search.SearchHit;
+import org.springframework.lang.Nullable;
+
+/**
+ *
+ * Maps a search hit source to the result class, implementations read the source bytes
+ * reference of the hit rather than its source map.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@FunctionalInterface
+public interface HitMapper {
+
+    /**
+     * Map search hit source to result entity.
+     * @param hit search hit.
+     * @param clazz result class.
+     * @return result entity, null when the hit has no source.
+     */
+    @Nullable
+    <T> T map(SearchHit hit, Class<T> clazz);
+
+}
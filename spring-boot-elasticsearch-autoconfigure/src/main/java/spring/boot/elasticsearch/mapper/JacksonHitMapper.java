@@ -0,0 +1,46 @@
+package spring.boot.elasticsearch.mapper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.search.SearchHit;
+import spring.boot.elasticsearch.exception.ElasticsearchException;
+
+import java.io.IOException;
+
+/**
+ *
+ * Jackson hit mapper, streams the source bytes reference into the result class.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class JacksonHitMapper implements HitMapper {
+
+    /**
+     * Jackson object mapper ignoring source fields unknown to the result class.
+     */
+    private final ObjectMapper objectMapper;
+
+    public JacksonHitMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public <T> T map(SearchHit hit, Class<T> clazz) {
+        BytesReference source = hit.getSourceRef();
+        if (source == null || source.length() == 0) {
+            return null;
+        }
+        BytesRef bytes = source.toBytesRef();
+        try {
+            return objectMapper.readValue(bytes.bytes, bytes.offset, bytes.length, clazz);
+        } catch (IOException e) {
+            throw new ElasticsearchException("failed to map source of hit [" + hit.getId() + "] to class " + clazz.getSimpleName(), e);
+        }
+    }
+
+}
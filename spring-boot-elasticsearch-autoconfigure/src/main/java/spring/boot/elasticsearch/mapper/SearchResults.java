@@ -0,0 +1,83 @@
+package spring.boot.elasticsearch.mapper;
+
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import spring.boot.elasticsearch.common.ScriptFieldBinder;
+import spring.boot.elasticsearch.common.SearchCursors;
+import spring.boot.elasticsearch.vo.CursorPage;
+import spring.boot.elasticsearch.vo.MultiSearchItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * Maps search responses to result collections through a {@link HitMapper}
+ * and the cached {@link ScriptFieldBinder} of the result class.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public final class SearchResults {
+
+    private SearchResults() {
+    }
+
+    public static <T> List<T> map(MultiSearchResponse responses, Class<T> clazz, HitMapper hitMapper) {
+        List<T> list = new ArrayList<>();
+        for (MultiSearchResponse.Item response : responses.getResponses()) {
+            if (!response.isFailure()) {
+                list.addAll(map(response.getResponse(), clazz, hitMapper));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Map the multi search responses to one result group per input query, in query order.
+     */
+    public static <T> List<MultiSearchItem<T>> group(List<MultiSearchResponse> responses, Class<T> clazz, HitMapper hitMapper) {
+        List<MultiSearchItem<T>> items = new ArrayList<>();
+        for (MultiSearchResponse multiSearchResponse : responses) {
+            for (MultiSearchResponse.Item response : multiSearchResponse.getResponses()) {
+                int position = items.size();
+                if (response.isFailure()) {
+                    items.add(new MultiSearchItem<>(position, Collections.emptyList(), null, response.getFailureMessage()));
+                } else {
+                    items.add(new MultiSearchItem<>(position, map(response.getResponse(), clazz, hitMapper),
+                            response.getResponse().getHits().getTotalHits(), null));
+                }
+            }
+        }
+        return items;
+    }
+
+    public static <T> CursorPage<T> page(SearchResponse response, Class<T> clazz, HitMapper hitMapper, int size) {
+        SearchHit[] searchHits = response.getHits().getHits();
+        String cursor = null;
+        if (searchHits.length > 0 && searchHits.length >= size) {
+            cursor = SearchCursors.encode(searchHits[searchHits.length - 1].getSortValues());
+        }
+        long totalHits = response.getHits().getTotalHits();
+        return new CursorPage<>(map(response, clazz, hitMapper), cursor, totalHits < 0 ? null : totalHits);
+    }
+
+    public static <T> List<T> map(SearchResponse response, Class<T> clazz, HitMapper hitMapper) {
+        SearchHit[] searchHits = response.getHits().getHits();
+        List<T> list = new ArrayList<>(searchHits.length);
+        ScriptFieldBinder binder = ScriptFieldBinder.of(clazz);
+        for (SearchHit searchHit : searchHits) {
+            T result = hitMapper.map(searchHit, clazz);
+            if (result != null && !binder.isEmpty()) {
+                binder.bind(result, searchHit);
+            }
+            list.add(result);
+        }
+        return list;
+    }
+
+}
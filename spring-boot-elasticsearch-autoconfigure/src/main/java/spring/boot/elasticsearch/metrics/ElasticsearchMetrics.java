@@ -0,0 +1,68 @@
+package spring.boot.elasticsearch.metrics;
+
+/**
+ *
+ * Elasticsearch client instrumentation, per operation and per index timers,
+ * document, byte and failure counters and in flight gauges.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public interface ElasticsearchMetrics {
+
+    /**
+     * Operation completed and Elasticsearch reported no failure.
+     */
+    String OUTCOME_SUCCESS = "success";
+
+    /**
+     * Operation completed and Elasticsearch reported a failure.
+     */
+    String OUTCOME_FAILURE = "failure";
+
+    /**
+     * Operation threw an exception.
+     */
+    String OUTCOME_ERROR = "error";
+
+    /**
+     * Start timing one operation call and count it in flight.
+     * @param operation operation name.
+     * @param index Elasticsearch index.
+     * @return start time in nanoseconds, to be passed to {@link #stop}.
+     */
+    long start(String operation, String index);
+
+    /**
+     * Stop timing one operation call.
+     * @param operation operation name.
+     * @param index Elasticsearch index.
+     * @param startNanos start time returned by {@link #start}.
+     * @param outcome call outcome.
+     */
+    void stop(String operation, String index, long startNanos, String outcome);
+
+    /**
+     * Count documents written or read by operation.
+     */
+    void documents(String operation, String index, long count);
+
+    /**
+     * Count request bytes sent by operation.
+     */
+    void bytes(String operation, String index, long bytes);
+
+    /**
+     * Count failed documents of operation.
+     */
+    void failures(String operation, String index, long count);
+
+    /**
+     * Count one result cache lookup of operation.
+     * @param hit whether the result was served from the cache.
+     */
+    void cache(String operation, String index, boolean hit);
+
+}
@@ -0,0 +1,115 @@
+package spring.boot.elasticsearch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Micrometer Elasticsearch metrics, publishes {@code elasticsearch.client.*} meters
+ * tagged with operation, index and outcome.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class MicrometerElasticsearchMetrics implements ElasticsearchMetrics {
+
+    /**
+     * Index tag of operations without an index.
+     */
+    private static final String NO_INDEX = "-";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Request timers keyed by operation, index and outcome.
+     */
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Counters keyed by meter name, operation, index and result.
+     */
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * In flight gauges keyed by operation and index.
+     */
+    private final ConcurrentMap<String, AtomicLong> inFlight = new ConcurrentHashMap<>();
+
+    public MicrometerElasticsearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public long start(String operation, String index) {
+        inFlight(operation, index).incrementAndGet();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(String operation, String index, long startNanos, String outcome) {
+        long nanos = System.nanoTime() - startNanos;
+        inFlight(operation, index).decrementAndGet();
+        timer(operation, index, outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void documents(String operation, String index, long count) {
+        counter("elasticsearch.client.documents", operation, index).increment(count);
+    }
+
+    @Override
+    public void bytes(String operation, String index, long bytes) {
+        counter("elasticsearch.client.bytes", operation, index).increment(bytes);
+    }
+
+    @Override
+    public void failures(String operation, String index, long count) {
+        counter("elasticsearch.client.failures", operation, index).increment(count);
+    }
+
+    @Override
+    public void cache(String operation, String index, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        String tag = tag(index);
+        counters.computeIfAbsent("elasticsearch.client.cache:" + operation + ':' + tag + ':' + result, key ->
+                registry.counter("elasticsearch.client.cache", "operation", operation, "index", tag, "result", result)).increment();
+    }
+
+    private Timer timer(String operation, String index, String outcome) {
+        String tag = tag(index);
+        return timers.computeIfAbsent(operation + ':' + tag + ':' + outcome, key ->
+                Timer.builder("elasticsearch.client.requests")
+                        .tags(Tags.of("operation", operation, "index", tag, "outcome", outcome))
+                        .publishPercentiles(0.5D, 0.99D)
+                        .register(registry));
+    }
+
+    private Counter counter(String name, String operation, String index) {
+        String tag = tag(index);
+        return counters.computeIfAbsent(name + ':' + operation + ':' + tag, key ->
+                registry.counter(name, "operation", operation, "index", tag));
+    }
+
+    private AtomicLong inFlight(String operation, String index) {
+        String tag = tag(index);
+        return inFlight.computeIfAbsent(operation + ':' + tag, key ->
+                registry.gauge("elasticsearch.client.inflight", Tags.of("operation", operation, "index", tag), new AtomicLong()));
+    }
+
+    /**
+     * Index tag value, micrometer rejects null tag values.
+     */
+    private static String tag(String index) {
+        return index == null || index.isEmpty() ? NO_INDEX : index;
+    }
+
+}
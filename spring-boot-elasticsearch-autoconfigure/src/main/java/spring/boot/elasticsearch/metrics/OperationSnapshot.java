@@ -0,0 +1,74 @@
+package spring.boot.elasticsearch.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Elasticseacrh operation metrics snapshot, latencies in microseconds.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+public class OperationSnapshot implements Serializable {
+
+    /**
+     * calls count.
+     */
+    private long count;
+
+    /**
+     * calls count that completed with a failure or error outcome.
+     */
+    private long unsuccessful;
+
+    /**
+     * calls in flight.
+     */
+    private long inFlight;
+
+    /**
+     * documents count.
+     */
+    private long documents;
+
+    /**
+     * request bytes.
+     */
+    private long bytes;
+
+    /**
+     * failed documents count.
+     */
+    private long failures;
+
+    /**
+     * result cache hits.
+     */
+    private long cacheHits;
+
+    /**
+     * result cache misses.
+     */
+    private long cacheMisses;
+
+    /**
+     * median latency.
+     */
+    private long p50;
+
+    /**
+     * 99th percentile latency.
+     */
+    private long p99;
+
+    /**
+     * max latency.
+     */
+    private long max;
+
+}
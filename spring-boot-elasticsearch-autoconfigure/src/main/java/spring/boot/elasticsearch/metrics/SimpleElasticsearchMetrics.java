@@ -0,0 +1,163 @@
+package spring.boot.elasticsearch.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * In process Elasticsearch metrics registry, used when Micrometer is absent.
+ * Latencies are recorded into lock free log linear histograms, 8 buckets per power of two microseconds.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+public class SimpleElasticsearchMetrics implements ElasticsearchMetrics {
+
+    private static final int SUB_BUCKETS = 8;
+
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    /**
+     * Operation stats keyed by operation and index.
+     */
+    private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public long start(String operation, String index) {
+        stats(operation, index).inFlight.increment();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(String operation, String index, long startNanos, String outcome) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        Stats operationStats = stats(operation, index);
+        operationStats.inFlight.decrement();
+        operationStats.count.increment();
+        operationStats.max.accumulate(micros);
+        operationStats.histogram.incrementAndGet(bucket(micros));
+        if (!OUTCOME_SUCCESS.equals(outcome)) {
+            operationStats.unsuccessful.increment();
+        }
+    }
+
+    @Override
+    public void documents(String operation, String index, long count) {
+        stats(operation, index).documents.add(count);
+    }
+
+    @Override
+    public void bytes(String operation, String index, long bytes) {
+        stats(operation, index).bytes.add(bytes);
+    }
+
+    @Override
+    public void failures(String operation, String index, long count) {
+        stats(operation, index).failures.add(count);
+    }
+
+    @Override
+    public void cache(String operation, String index, boolean hit) {
+        Stats operationStats = stats(operation, index);
+        if (hit) {
+            operationStats.cacheHits.increment();
+        } else {
+            operationStats.cacheMisses.increment();
+        }
+    }
+
+    /**
+     * Snapshot of every operation and index stats.
+     * @return snapshots keyed by {@code operation:index}.
+     */
+    public Map<String, OperationSnapshot> snapshot() {
+        Map<String, OperationSnapshot> snapshots = new TreeMap<>();
+        stats.forEach((key, operationStats) -> snapshots.put(key, operationStats.snapshot()));
+        return snapshots;
+    }
+
+    private Stats stats(String operation, String index) {
+        String key = operation + ':' + index;
+        Stats operationStats = stats.get(key);
+        return operationStats != null ? operationStats : stats.computeIfAbsent(key, k -> new Stats());
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) ((micros >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+        return (exponent - 2) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 2;
+        int subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1L) << (exponent - 3)) - 1;
+    }
+
+    /**
+     * Striped counters of one operation and index.
+     */
+    private static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder inFlight = new LongAdder();
+
+        private final LongAdder documents = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder unsuccessful = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        private final LongAdder cacheMisses = new LongAdder();
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private OperationSnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            return new OperationSnapshot(count.sum(), unsuccessful.sum(), inFlight.sum(), documents.sum(), bytes.sum(),
+                    failures.sum(), cacheHits.sum(), cacheMisses.sum(), percentile(counts, total, 0.5D), percentile(counts, total, 0.99D), max.get());
+        }
+
+        private long percentile(long[] counts, long total, double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package spring.boot.elasticsearch.scroll;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.Scroll;
+import org.springframework.util.StringUtils;
+import spring.boot.elasticsearch.exception.ElasticsearchSearchException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *
+ * Lazily pulled Elasticsearch scroll cursor, iterates page by page and prefetches
+ * the following page while the current one is processed. At most the current page
+ * and the prefetched page are held, the scroll context is cleared on close.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class ScrollCursor<T> implements Iterator<List<T>>, Closeable {
+
+    /**
+     * Elasticsearch rest high level client instance.
+     */
+    private final RestHighLevelClient restClient;
+
+    /**
+     * Scroll keep alive passed on every page request.
+     */
+    private final Scroll scroll;
+
+    /**
+     * Maps one search response page to result collection.
+     */
+    private final Function<SearchResponse, List<T>> pageMapper;
+
+    /**
+     * Total hits reported by the first page.
+     */
+    private final long totalHits;
+
+    /**
+     * Hits received so far.
+     */
+    private long receivedHits;
+
+    /**
+     * Latest scroll id returned by Elasticsearch.
+     */
+    private String scrollId;
+
+    /**
+     * Page ready to be returned by {@link #next()}.
+     */
+    private SearchResponse current;
+
+    /**
+     * Prefetched page request in flight.
+     */
+    private CompletableFuture<SearchResponse> pending;
+
+    private boolean closed;
+
+    public ScrollCursor(RestHighLevelClient restClient, SearchRequest searchRequest,
+                        Function<SearchResponse, List<T>> pageMapper) throws IOException {
+        this.restClient = restClient;
+        this.scroll = searchRequest.scroll();
+        this.pageMapper = pageMapper;
+        this.current = restClient.search(searchRequest, RequestOptions.DEFAULT);
+        this.scrollId = current.getScrollId();
+        this.totalHits = current.getHits().getTotalHits();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(closed){
+            return false;
+        }
+        awaitPending();
+        boolean hasNext = current != null && current.getHits().getHits().length > 0;
+        if(!hasNext){
+            close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public List<T> next() {
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        SearchResponse page = current;
+        current = null;
+        receivedHits += page.getHits().getHits().length;
+        if(receivedHits < totalHits && !StringUtils.isEmpty(scrollId)){
+            pending = fetch(scrollId);
+        }
+        return pageMapper.apply(page);
+    }
+
+    /**
+     * Lazily pulled stream of results, closing the stream clears the scroll context.
+     * @return result stream.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if(closed){
+            return;
+        }
+        closed = true;
+        if(pending != null){
+            try {
+                awaitPending();
+            } catch (ElasticsearchSearchException ex) {
+                log.debug("Elasticsearch prefetched scroll page discarded on close, {}", ex);
+            }
+        }
+        current = null;
+        if(StringUtils.isEmpty(scrollId)){
+            return;
+        }
+        try {
+            ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+            clearScrollRequest.addScrollId(scrollId);
+            restClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            log.error("Elasticsearch Clear Cursor Search scroll id {} When find a fail, {}", scrollId, e);
+            throw new ElasticsearchSearchException();
+        }
+    }
+
+    private CompletableFuture<SearchResponse> fetch(String scrollId) {
+        CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+        SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
+        scrollRequest.scroll(scroll);
+        restClient.scrollAsync(scrollRequest, RequestOptions.DEFAULT,
+                ActionListener.wrap(future::complete, future::completeExceptionally));
+        return future;
+    }
+
+    private void awaitPending() {
+        if(pending == null){
+            return;
+        }
+        try {
+            current = pending.join();
+        } catch (CompletionException e) {
+            log.error("Elasticsearch Cursor Search scroll id {} When find a fail, {}", scrollId, e.getCause());
+            throw new ElasticsearchSearchException();
+        } finally {
+            pending = null;
+        }
+        if(!StringUtils.isEmpty(current.getScrollId())){
+            scrollId = current.getScrollId();
+        }
+    }
+
+}
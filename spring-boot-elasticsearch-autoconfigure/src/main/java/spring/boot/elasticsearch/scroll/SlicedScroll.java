@@ -0,0 +1,201 @@
+package spring.boot.elasticsearch.scroll;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import spring.boot.elasticsearch.exception.ElasticsearchSearchException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *
+ * Sliced Elasticsearch scroll, pulls every slice through its own {@link ScrollCursor}
+ * concurrently on a bounded executor.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class SlicedScroll<T> implements Closeable {
+
+    /**
+     * Number of slices.
+     */
+    private final int slices;
+
+    /**
+     * Opens the scroll cursor of one slice id.
+     */
+    private final IntFunction<ScrollCursor<T>> cursorFactory;
+
+    /**
+     * Bounded slice executor.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Marks one finished slice in the merged page queue.
+     */
+    private final List<T> endOfSlice = new ArrayList<>(0);
+
+    /**
+     * First slice failure.
+     */
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private volatile boolean cancelled;
+
+    public SlicedScroll(int slices, int parallelism, IntFunction<ScrollCursor<T>> cursorFactory) {
+        this.slices = slices;
+        this.cursorFactory = cursorFactory;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("elasticsearch-slice-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    /**
+     * Pull every slice and push each page to consumer with its slice id, the consumer is
+     * called concurrently from the slice threads. Returns once all slices are exhausted.
+     * @param consumer slice id and result page consumer.
+     */
+    public void forEach(BiConsumer<Integer, List<T>> consumer) {
+        List<Future<?>> futures = new ArrayList<>(slices);
+        for (int id = 0; id < slices; id++) {
+            int sliceId = id;
+            futures.add(executor.submit(() -> pull(sliceId, consumer)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchSearchException();
+        } catch (ExecutionException e) {
+            // the failure is recorded by pull
+        } finally {
+            close();
+        }
+        RuntimeException ex = failure.get();
+        if (ex != null) {
+            throw ex;
+        }
+    }
+
+    /**
+     * Merged, lazily pulled stream of every slice, the page queue holds at most two pages per slice thread.
+     * Closing the stream cancels the remaining slices and clears their scroll contexts, the slice threads
+     * also stop once the last slice is exhausted.
+     * @return merged result stream.
+     */
+    public Stream<T> stream() {
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(Math.max(2, slices * 2));
+        AtomicInteger finished = new AtomicInteger();
+        for (int id = 0; id < slices; id++) {
+            int sliceId = id;
+            executor.submit(() -> {
+                try {
+                    pull(sliceId, (slice, page) -> put(queue, page));
+                } finally {
+                    put(queue, endOfSlice);
+                    if (finished.incrementAndGet() == slices) {
+                        executor.shutdown();
+                    }
+                }
+            });
+        }
+        Iterator<List<T>> pages = new Iterator<List<T>>() {
+
+            private int remaining = slices;
+
+            private List<T> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && remaining > 0) {
+                    List<T> page;
+                    try {
+                        page = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ElasticsearchSearchException();
+                    }
+                    if (page == endOfSlice) {
+                        remaining--;
+                    } else {
+                        next = page;
+                    }
+                }
+                RuntimeException ex = failure.get();
+                if (ex != null) {
+                    throw ex;
+                }
+                return next != null;
+            }
+
+            @Override
+            public List<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> page = next;
+                next = null;
+                return page;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        cancelled = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait for room in the page queue, gives up when the scroll is closed.
+     */
+    private void put(BlockingQueue<List<T>> queue, List<T> page) {
+        try {
+            queue.put(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+    }
+
+    private void pull(int sliceId, BiConsumer<Integer, List<T>> consumer) {
+        try (ScrollCursor<T> cursor = cursorFactory.apply(sliceId)) {
+            while (!cancelled && cursor.hasNext()) {
+                consumer.accept(sliceId, cursor.next());
+            }
+        } catch (RuntimeException ex) {
+            log.error("Elasticsearch sliced scroll slice {} of {} When find a fail, {}", sliceId, slices, ex);
+            failure.compareAndSet(null, ex);
+            cancelled = true;
+            throw ex;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package spring.boot.elasticsearch.service;
+
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+import spring.boot.elasticsearch.vo.CursorPage;
+import spring.boot.elasticsearch.vo.CursorPageVo;
+import spring.boot.elasticsearch.vo.IndexVo;
+import spring.boot.elasticsearch.vo.MultiSearchItem;
+import spring.boot.elasticsearch.vo.PageVo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking Elasticseacrh Service, every operation completes its future from the
+ * Elasticsearch client IO threads with the same semantics as {@link ElasticsearchService}.
+ * Failures complete the future exceptionally with the matching Elasticsearch exception.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+public interface AsyncElasticsearchService {
+
+    CompletableFuture<Boolean> exists(String index);
+
+    CompletableFuture<Boolean> delete(String index);
+
+    CompletableFuture<Boolean> create(String index, String type, String aliasName, Collection<? extends IndexVo> indexCollections);
+
+    CompletableFuture<Boolean> create(Class<?> documentClass);
+
+    <T> CompletableFuture<Boolean> bulk(String index, String type, String routing, Collection<T> entities);
+
+    <T> CompletableFuture<Boolean> bulk(String index, String type, String routing, Collection<T> entities, WriteProfile profile);
+
+    <T> CompletableFuture<BulkResult> bulkResult(String index, String type, String routing, Collection<T> entities);
+
+    <T> CompletableFuture<BulkResult> bulkResult(String index, String type, String routing, Collection<T> entities, WriteProfile profile);
+
+    <T> CompletableFuture<Boolean> update(String index, String type, String routing, T entity);
+
+    <T> CompletableFuture<Boolean> update(String index, String type, String routing, T entity, WriteProfile profile);
+
+    <T> CompletableFuture<Boolean> update(String index, String type, String routing, String id, T entity);
+
+    <T> CompletableFuture<BulkItemResult> updateResult(String index, String type, String routing, String id, T entity, boolean upsert, WriteProfile profile);
+
+    <Q> CompletableFuture<Boolean> delete(String index, String routing, Q searchEntity);
+
+    <Q> CompletableFuture<Boolean> delete(String index, String type, String routing, Q searchEntity);
+
+    <T, Q> CompletableFuture<List<T>> search(String index, Q searchEntity, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> search(String index, String routing, Q searchEntities, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> search(String index, String routing, Q searchEntities, PageVo pageVo, Class<T> clazz);
+
+    <T, Q> CompletableFuture<CursorPage<T>> searchAfter(String index, Q searchEntity, String cursor, Class<T> clazz);
+
+    <T, Q> CompletableFuture<CursorPage<T>> searchAfter(String index, String routing, Q searchEntity, CursorPageVo pageVo, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> scroll(String index, Q searchEntity, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> scroll(String index, String routing, Q searchEntity, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> msearch(String index, List<Q> searchEntities, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> msearch(String index, String routing, List<Q> searchEntities, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<T>> msearch(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz);
+
+    <T, Q> CompletableFuture<List<MultiSearchItem<T>>> msearchGrouped(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz);
+
+}
@@ -2,11 +2,21 @@ package spring.boot.elasticsearch.service;
 
 import spring.boot.elasticsearch.exception.*;
 import spring.boot.exception.*;
+import spring.boot.elasticsearch.bulk.BulkLoadSession;
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+import spring.boot.elasticsearch.vo.CursorPage;
+import spring.boot.elasticsearch.vo.CursorPageVo;
 import spring.boot.elasticsearch.vo.IndexVo;
+import spring.boot.elasticsearch.vo.MultiSearchItem;
 import spring.boot.elasticsearch.vo.PageVo;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Elasticseacrh Service.
@@ -24,10 +34,28 @@ public interface ElasticsearchService {
     Boolean create(String index, String type, String aliasName, Collection<? extends IndexVo> indexCollections) throws ElasticsearchCreateIndexNotFoundException,
             ElasticsearchCreateIndexMustException, ElasticsearchCreateIndexException, ElasticsearchMappingException;
 
+    Boolean create(Class<?> documentClass) throws ElasticsearchCreateIndexException, ElasticsearchMappingException;
+
     <T> Boolean bulk(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException;
 
+    <T> Boolean bulk(String index, String type, String routing, Collection<T> entities, WriteProfile profile) throws ElasticsearchPersistenceException;
+
+    <T> BulkResult bulkResult(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException;
+
+    <T> BulkResult bulkResult(String index, String type, String routing, Collection<T> entities, WriteProfile profile) throws ElasticsearchPersistenceException;
+
+    BulkLoadSession openBulkLoad(String index) throws ElasticsearchPersistenceException;
+
+    <T> void ingest(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException;
+
     <T> Boolean update(String index, String type, String routing, T entity) throws ElasticsearchPersistenceException;
 
+    <T> Boolean update(String index, String type, String routing, T entity, WriteProfile profile) throws ElasticsearchPersistenceException;
+
+    <T> Boolean update(String index, String type, String routing, String id, T entity) throws ElasticsearchPersistenceException;
+
+    <T> BulkItemResult updateResult(String index, String type, String routing, String id, T entity, boolean upsert, WriteProfile profile) throws ElasticsearchPersistenceException;
+
     <Q>  Boolean delete(String index, String routing, Q searchEntity) throws ElasticsearchPersistenceException;
 
     <Q>  Boolean delete(String index, String type, String routing, Q searchEntity) throws ElasticsearchPersistenceException;
@@ -38,16 +66,30 @@ public interface ElasticsearchService {
 
     <T, Q> List<T> search(String index, String routing, Q searchEntities, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
 
+    <T, Q> CursorPage<T> searchAfter(String index, Q searchEntity, String cursor, Class<T> clazz) throws ElasticsearchSearchException;
+
+    <T, Q> CursorPage<T> searchAfter(String index, String routing, Q searchEntity, CursorPageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
+
     <T, Q> List<T> scroll(String index, Q searchEntity, Class<T> clazz) throws ElasticsearchSearchException;
 
     <T, Q> List<T> scroll(String index, String routing, Q searchEntity, Class<T> clazz) throws ElasticsearchSearchException;
 
     <T, Q> List<T> scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
 
+    <T, Q> void scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz, Consumer<List<T>> consumer) throws ElasticsearchSearchException;
+
+    <T, Q> Stream<T> scrollStream(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
+
+    <T, Q> Stream<T> scrollSliced(String index, String routing, Q searchEntity, PageVo pageVo, Integer slices, Class<T> clazz) throws ElasticsearchSearchException;
+
+    <T, Q> void scrollSliced(String index, String routing, Q searchEntity, PageVo pageVo, Integer slices, Class<T> clazz, BiConsumer<Integer, List<T>> consumer) throws ElasticsearchSearchException;
+
     <T, Q> List<T> msearch(String index, List<Q> searchEntities, Class<T> clazz) throws ElasticsearchSearchException;
 
     <T, Q> List<T> msearch(String index, String routing, List<Q> searchEntities, Class<T> clazz) throws ElasticsearchSearchException;
 
     <T, Q> List<T> msearch(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
 
+    <T, Q> List<MultiSearchItem<T>> msearchGrouped(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException;
+
 }
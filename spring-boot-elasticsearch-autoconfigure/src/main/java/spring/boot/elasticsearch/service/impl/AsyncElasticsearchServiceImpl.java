@@ -0,0 +1,512 @@
+package spring.boot.elasticsearch.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.search.Scroll;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import spring.boot.elasticsearch.bulk.BulkEncoder;
+import spring.boot.elasticsearch.bulk.BulkRetry;
+import spring.boot.elasticsearch.cache.SearchResultCache;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.common.MultiSearches;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
+import spring.boot.elasticsearch.constants.WriteProfile;
+import spring.boot.elasticsearch.exception.*;
+import spring.boot.elasticsearch.mapper.HitMapper;
+import spring.boot.elasticsearch.mapper.SearchResults;
+import spring.boot.elasticsearch.service.AsyncElasticsearchService;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+import spring.boot.elasticsearch.vo.CursorPage;
+import spring.boot.elasticsearch.vo.CursorPageVo;
+import spring.boot.elasticsearch.vo.IndexVo;
+import spring.boot.elasticsearch.vo.MultiSearchItem;
+import spring.boot.elasticsearch.vo.PageVo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_CURSOR_PAGE_SIZE;
+import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_FROM_SIZE;
+import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_PAGE_SIZE;
+
+/**
+ *
+ * Elasticsearch non-blocking crud implements class, built on the
+ * {@link RestHighLevelClient} asynchronous methods.
+ *
+ * @author OAK
+ * @since 2019/06/24 20:16:00 PM.
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class AsyncElasticsearchServiceImpl implements AsyncElasticsearchService {
+
+    /**
+     * Elasticsearch rest high level client instance.
+     */
+    private final RestHighLevelClient restClient;
+
+    /**
+     *  Elasticsearch properties instance.
+     */
+    private final ElasticsearchProperties properties;
+
+    /**
+     * Elasticsearch request properties instance.
+     */
+    private final ElasticsearchRequestProperties requestProperties;
+
+    /**
+     * Elasticsearch search request properties instance.
+     */
+    private final ElasticsearchSearchProperties searchProperties;
+
+    /**
+     * Elasticsearch search hit mapper instance.
+     */
+    private final HitMapper hitMapper;
+
+    /**
+     * Elasticsearch bulk request encoder instance, absent when direct encoding is disabled.
+     */
+    @Nullable
+    private final BulkEncoder bulkEncoder;
+
+    /**
+     * Elasticsearch search result cache instance, invalidated by the writes of this service, null when caching is disabled.
+     */
+    @Nullable
+    private final SearchResultCache resultCache;
+
+    public AsyncElasticsearchServiceImpl(RestHighLevelClient restClient, ElasticsearchProperties properties,
+                                         ElasticsearchRequestProperties requestProperties,
+                                         ElasticsearchSearchProperties searchProperties, HitMapper hitMapper) {
+        this(restClient, properties, requestProperties, searchProperties, hitMapper, null);
+    }
+
+    public AsyncElasticsearchServiceImpl(RestHighLevelClient restClient, ElasticsearchProperties properties,
+                                         ElasticsearchRequestProperties requestProperties,
+                                         ElasticsearchSearchProperties searchProperties, HitMapper hitMapper,
+                                         @Nullable BulkEncoder bulkEncoder) {
+        this(restClient, properties, requestProperties, searchProperties, hitMapper, bulkEncoder, null);
+    }
+
+    public AsyncElasticsearchServiceImpl(RestHighLevelClient restClient, ElasticsearchProperties properties,
+                                         ElasticsearchRequestProperties requestProperties,
+                                         ElasticsearchSearchProperties searchProperties, HitMapper hitMapper,
+                                         @Nullable BulkEncoder bulkEncoder, @Nullable SearchResultCache resultCache) {
+        this.restClient = restClient;
+        this.properties = properties;
+        this.requestProperties = requestProperties;
+        this.searchProperties = searchProperties;
+        this.hitMapper = hitMapper;
+        this.bulkEncoder = bulkEncoder;
+        this.resultCache = resultCache;
+    }
+
+    public CompletableFuture<Boolean> exists(String index) {
+        return this.<Boolean>execute(listener -> restClient.indices().existsAsync(ElasticsearchRequests.exists(index), RequestOptions.DEFAULT, listener))
+                .exceptionally(ex -> fail(ex, ElasticsearchExistsIndexException::new,
+                        "Whether exists elasticsearch index {} found a fail, {}", index));
+    }
+
+    public CompletableFuture<Boolean> delete(String index) {
+        DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest(index);
+        return invalidating(index, this.<AcknowledgedResponse>execute(listener ->
+                restClient.indices().deleteAsync(deleteIndexRequest, RequestOptions.DEFAULT, listener)))
+                .handle((acknowledgedResponse, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchDeleteIndexException::new, "Delete elasticsearch index {} found fail, {}", index);
+                    }
+                    log.info("Delete elasticsearch index {} finish, acknowledged is {}", index, acknowledgedResponse.isAcknowledged());
+                    return acknowledgedResponse.isAcknowledged();
+                });
+    }
+
+    public CompletableFuture<Boolean> create(String index, String type, String aliasName, Collection<? extends IndexVo> indexCollections) {
+        CreateIndexRequest request;
+        try {
+            request = ElasticsearchRequests.create(properties, index, type, aliasName, indexCollections);
+        } catch (ElasticsearchException ex) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+        return create(request);
+    }
+
+    public CompletableFuture<Boolean> create(Class<?> documentClass) {
+        CreateIndexRequest request;
+        try {
+            request = ElasticsearchRequests.create(properties, documentClass);
+        } catch (ElasticsearchException ex) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+        return create(request);
+    }
+
+    private CompletableFuture<Boolean> create(CreateIndexRequest request) {
+        String index = request.index();
+        return invalidating(index, this.<CreateIndexResponse>execute(listener ->
+                restClient.indices().createAsync(request, RequestOptions.DEFAULT, listener)))
+                .handle((createIndexResponse, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchCreateIndexException::new, "Create elasticsearch index {} found fail, {}", index);
+                    }
+                    log.info("Create elasticsearch index {} finish, acknowledged is {} shardsAcknowledged is {}",
+                            index, createIndexResponse.isAcknowledged(), createIndexResponse.isShardsAcknowledged());
+                    return createIndexResponse.isAcknowledged();
+                });
+    }
+
+    public <T> CompletableFuture<Boolean> bulk(String index, String type, String routing, Collection<T> entities) {
+        return bulk(index, type, routing, entities, null);
+    }
+
+    public <T> CompletableFuture<Boolean> bulk(String index, String type, String routing, Collection<T> entities, WriteProfile profile) {
+        return bulkResult(index, type, routing, entities, profile).thenApply(bulkResult -> !bulkResult.hasFailures());
+    }
+
+    public <T> CompletableFuture<BulkResult> bulkResult(String index, String type, String routing, Collection<T> entities) {
+        return bulkResult(index, type, routing, entities, null);
+    }
+
+    public <T> CompletableFuture<BulkResult> bulkResult(String index, String type, String routing, Collection<T> entities, WriteProfile profile) {
+        String indexType = ElasticsearchRequests.type(type);
+        BulkRequest bulkRequest;
+        try {
+            bulkRequest = ElasticsearchRequests.bulk(requestProperties, profile, index, indexType, routing, entities);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchPersistenceException::new,
+                    "Elasticsearch index {} type {} save entities find a fail, {}", index, indexType);
+        }
+        BulkRetry retry = new BulkRetry(bulkRequest, requestProperties);
+        return invalidating(index, bulkAttempt(retry))
+                .handle((bulkResult, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchPersistenceException::new,
+                                "Elasticsearch index {} type {} save entities find a fail, {}", index, indexType);
+                    }
+                    if (bulkResult.hasFailures()) {
+                        List<BulkItemResult> failures = bulkResult.getFailures();
+                        log.error("Elasticsearch index {} type {} save entities {} items failed after {} attempts, first failure {}",
+                                index, indexType, failures.size(), bulkResult.getAttempts(), failures.get(0));
+                    }
+                    return bulkResult;
+                });
+    }
+
+    public <T> CompletableFuture<Boolean> update(String index, String type, String routing, T entity) {
+        return update(index, type, routing, entity, null);
+    }
+
+    public <T> CompletableFuture<Boolean> update(String index, String type, String routing, T entity, WriteProfile profile) {
+        return updateResult(index, type, routing, null, entity, false, profile).thenApply(item -> !item.isFailed());
+    }
+
+    public <T> CompletableFuture<Boolean> update(String index, String type, String routing, String id, T entity) {
+        return updateResult(index, type, routing, id, entity, false, null).thenApply(item -> !item.isFailed());
+    }
+
+    public <T> CompletableFuture<BulkItemResult> updateResult(String index, String type, String routing, String id, T entity,
+                                                              boolean upsert, WriteProfile profile) {
+        String indexType = ElasticsearchRequests.type(type);
+        UpdateRequest updateRequest;
+        try {
+            updateRequest = ElasticsearchRequests.update(requestProperties, profile, index, indexType, routing, id, entity, upsert);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchPersistenceException::new,
+                    "Elasticsearch index {} type {} Update entity find a fail, {}", index, indexType);
+        }
+        return invalidating(index, this.<UpdateResponse>execute(listener ->
+                restClient.updateAsync(updateRequest, RequestOptions.DEFAULT, listener)))
+                .handle((updateResponse, ex) -> {
+                    if (ex == null) {
+                        return new BulkItemResult(0, updateResponse.getId(), updateResponse.status().getStatus(), null, 1);
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof ElasticsearchStatusException) {
+                        ElasticsearchStatusException statusException = (ElasticsearchStatusException) cause;
+                        return new BulkItemResult(0, id, statusException.status().getStatus(), statusException.getMessage(), 1);
+                    }
+                    return fail(ex, ElasticsearchPersistenceException::new,
+                            "Elasticsearch index {} type {} Update entity find a fail, {}", index, indexType);
+                });
+    }
+
+    public <Q> CompletableFuture<Boolean> delete(String index, String routing, Q searchEntity) {
+        return delete(index, "", routing, searchEntity);
+    }
+
+    public <Q> CompletableFuture<Boolean> delete(String index, String type, String routing, Q searchEntity) {
+        DeleteByQueryRequest deleteByQueryRequest;
+        try {
+            deleteByQueryRequest = ElasticsearchRequests.deleteByQuery(requestProperties, index, type, routing, searchEntity);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchPersistenceException::new,
+                    "Elasticsearch index {} type {} Delete entity find a fail, {}", index, type);
+        }
+        return invalidating(index, this.<BulkByScrollResponse>execute(listener ->
+                restClient.deleteByQueryAsync(deleteByQueryRequest, RequestOptions.DEFAULT, listener)))
+                .handle((bulkByScrollResponse, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchPersistenceException::new,
+                                "Elasticsearch index {} type {} Delete entity find a fail, {}", index, type);
+                    }
+                    boolean hasFailures = !bulkByScrollResponse.getBulkFailures().isEmpty();
+                    if (hasFailures) {
+                        log.error("Elasticsearch index {} type {} Delete entities build a fail message {}", index, type,
+                                bulkByScrollResponse.getBulkFailures());
+                    }
+                    return !hasFailures;
+                });
+    }
+
+    public <T, Q> CompletableFuture<List<T>> search(String index, Q searchEntity, Class<T> clazz) {
+        return search(index, "", searchEntity, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> search(String index, String routing, Q searchEntity, Class<T> clazz) {
+        return search(index, routing, searchEntity, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> search(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) {
+        SearchRequest searchRequest;
+        try {
+            searchRequest = ElasticsearchRequests.search(searchProperties, index, routing, searchEntity, pageVo, clazz);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Search When find a fail, {}", index);
+        }
+        return this.<SearchResponse>execute(listener -> restClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener))
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Search When find a fail, {}", index);
+                    }
+                    return SearchResults.map(response, clazz, hitMapper);
+                });
+    }
+
+    public <T, Q> CompletableFuture<CursorPage<T>> searchAfter(String index, Q searchEntity, String cursor, Class<T> clazz) {
+        return searchAfter(index, "", searchEntity, new CursorPageVo(cursor, DEFAULT_CURSOR_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<CursorPage<T>> searchAfter(String index, String routing, Q searchEntity, CursorPageVo pageVo, Class<T> clazz) {
+        SearchRequest searchRequest;
+        try {
+            searchRequest = ElasticsearchRequests.searchAfter(searchProperties, index, routing, searchEntity, pageVo, clazz);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Search After When find a fail, {}", index);
+        }
+        return this.<SearchResponse>execute(listener -> restClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener))
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Search After When find a fail, {}", index);
+                    }
+                    return SearchResults.page(response, clazz, hitMapper, pageVo.getSize());
+                });
+    }
+
+    public <T, Q> CompletableFuture<List<T>> scroll(String index, Q searchEntity, Class<T> clazz) {
+        return scroll(index, "", searchEntity, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> scroll(String index, String routing, Q searchEntity, Class<T> clazz) {
+        return scroll(index, routing, searchEntity, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) {
+        SearchRequest searchRequest;
+        try {
+            searchRequest = ElasticsearchRequests.scroll(searchProperties, index, routing, searchEntity, pageVo, clazz, null);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Cursor Search When find a fail, {}", index);
+        }
+        List<T> searchList = new ArrayList<>();
+        return this.<SearchResponse>execute(listener -> restClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener))
+                .thenCompose(response -> scrollPages(response, searchRequest.scroll(), searchList, clazz))
+                .handle((scrollId, ex) -> {
+                    if (!StringUtils.isEmpty(scrollId)) {
+                        clearScroll(scrollId);
+                    }
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Cursor Search When find a fail, {}", index);
+                    }
+                    return searchList;
+                });
+    }
+
+    public <T, Q> CompletableFuture<List<T>> msearch(String index, List<Q> searchEntities, Class<T> clazz) {
+        return msearch(index, "", searchEntities, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> msearch(String index, String routing, List<Q> searchEntities, Class<T> clazz) {
+        return msearch(index, routing, searchEntities, new PageVo(DEFAULT_FROM_SIZE, DEFAULT_PAGE_SIZE), clazz);
+    }
+
+    public <T, Q> CompletableFuture<List<T>> msearch(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) {
+        return msearchGrouped(index, routing, searchEntities, pageVo, clazz).thenApply(items -> {
+            List<T> searchList = new ArrayList<>();
+            items.forEach(item -> searchList.addAll(item.getContent()));
+            return searchList;
+        });
+    }
+
+    public <T, Q> CompletableFuture<List<MultiSearchItem<T>>> msearchGrouped(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) {
+        List<MultiSearchRequest> multiSearchRequests;
+        try {
+            multiSearchRequests = ElasticsearchRequests.msearchChunks(searchProperties, index, routing, searchEntities, pageVo, clazz);
+        } catch (RuntimeException ex) {
+            return failed(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Multi Search When find a fail, {}", index);
+        }
+        return MultiSearches.execute(restClient, multiSearchRequests, searchProperties.getMsearchParallelism())
+                .handle((multiSearchResponses, ex) -> {
+                    if (ex != null) {
+                        return fail(ex, ElasticsearchSearchException::new, "Elasticsearch index {} Multi Search When find a fail, {}", index);
+                    }
+                    List<MultiSearchItem<T>> items = SearchResults.group(multiSearchResponses, clazz, hitMapper);
+                    items.stream().filter(MultiSearchItem::isFailed).forEach(item ->
+                            log.warn("Elasticsearch index {} Multi Search query {} When find a fail, {}", index, item.getPosition(), item.getFailure()));
+                    return items;
+                });
+    }
+
+    /**
+     * Map the current scroll page and request the following one until a page comes back empty.
+     * @return future of the last scroll id, to be cleared by the caller.
+     */
+    private <T> CompletableFuture<String> scrollPages(SearchResponse response, Scroll scroll, List<T> searchList, Class<T> clazz) {
+        String scrollId = response.getScrollId();
+        if (response.getHits().getHits().length == 0 || StringUtils.isEmpty(scrollId)) {
+            return CompletableFuture.completedFuture(scrollId);
+        }
+        searchList.addAll(SearchResults.map(response, clazz, hitMapper));
+        SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
+        scrollRequest.scroll(scroll);
+        return this.<SearchResponse>execute(listener -> restClient.scrollAsync(scrollRequest, RequestOptions.DEFAULT, listener))
+                .thenCompose(next -> scrollPages(next, scroll, searchList, clazz));
+    }
+
+    private void clearScroll(String scrollId) {
+        ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+        clearScrollRequest.addScrollId(scrollId);
+        restClient.clearScrollAsync(clearScrollRequest, RequestOptions.DEFAULT, ActionListener.wrap(
+                clearScrollResponse -> { },
+                e -> log.error("Elasticsearch Clear Cursor Search scroll id {} When find a fail, {}", scrollId, e)));
+    }
+
+    /**
+     * Send the current attempt of the bulk retry and, after the jittered backoff, the retryable items again.
+     * @return future of the item outcomes.
+     */
+    private CompletableFuture<BulkResult> bulkAttempt(BulkRetry retry) {
+        return this.<BulkResponse>execute(listener -> {
+                    if (bulkEncoder == null) {
+                        restClient.bulkAsync(retry.request(), RequestOptions.DEFAULT, listener);
+                    } else {
+                        bulkEncoder.executeAsync(restClient, retry.request(), listener);
+                    }
+                })
+                .handle((bulkResponse, ex) -> {
+                    if (ex == null) {
+                        return retry.onResponse(bulkResponse);
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof ElasticsearchStatusException && retry.retryable((ElasticsearchStatusException) cause)) {
+                        return retry.onFailure((ElasticsearchStatusException) cause);
+                    }
+                    throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+                })
+                .thenCompose(again -> {
+                    if (!again) {
+                        return CompletableFuture.completedFuture(retry.result());
+                    }
+                    Executor delayed = CompletableFuture.delayedExecutor(retry.backoff(), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, delayed).thenCompose(ignored -> bulkAttempt(retry));
+                });
+    }
+
+    /**
+     * Invalidate the cached search results of index once the write completes, failed writes included
+     * since part of them may have been applied.
+     */
+    private <R> CompletableFuture<R> invalidating(String index, CompletableFuture<R> write) {
+        if (resultCache == null) {
+            return write;
+        }
+        return write.whenComplete((response, ex) -> resultCache.invalidate(index));
+    }
+
+    /**
+     * Start the client call, a call failing before it is sent completes the future exceptionally.
+     */
+    private <R> CompletableFuture<R> execute(Consumer<ActionListener<R>> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            call.accept(ActionListener.wrap(future::complete, future::completeExceptionally));
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Future of a request that could not be built, failed with the Elasticsearch exception of the operation.
+     */
+    private <V> CompletableFuture<V> failed(RuntimeException ex, Supplier<? extends ElasticsearchException> exception, String message, Object... arguments) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            fail(ex, exception, message, arguments);
+        } catch (ElasticsearchException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Log the failure and rethrow it as the Elasticsearch exception of the operation.
+     */
+    private <V> V fail(Throwable ex, Supplier<? extends ElasticsearchException> exception, String message, Object... arguments) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ElasticsearchException) {
+            throw (ElasticsearchException) cause;
+        }
+        Object[] logArguments = new Object[arguments.length + 1];
+        System.arraycopy(arguments, 0, logArguments, 0, arguments.length);
+        logArguments[arguments.length] = cause;
+        log.error(message, logArguments);
+        throw exception.get();
+    }
+
+}
@@ -1,53 +1,68 @@
 package spring.boot.elasticsearch.service.impl;
 
 import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import spring.boot.elasticsearch.annotations.Field;
-import spring.boot.elasticsearch.common.TimeLength;
+import spring.boot.elasticsearch.bulk.AdaptiveBulkBatcher;
+import spring.boot.elasticsearch.bulk.BulkEncoder;
+import spring.boot.elasticsearch.bulk.BulkLoadSession;
+import spring.boot.elasticsearch.bulk.BulkRetry;
+import spring.boot.elasticsearch.bulk.ElasticsearchBulkPipeline;
+import spring.boot.elasticsearch.bulk.UpdateBatcher;
+import spring.boot.elasticsearch.cache.SearchCoalescer;
+import spring.boot.elasticsearch.cache.SearchResultCache;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.common.IndexMapping;
+import spring.boot.elasticsearch.common.MultiSearches;
+import spring.boot.elasticsearch.common.Payload;
+import spring.boot.elasticsearch.config.ElasticsearchLoggingProperties;
 import spring.boot.elasticsearch.config.ElasticsearchProperties;
 import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
-import spring.boot.elasticsearch.constants.ElasticsearchConstants;
 import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+import spring.boot.elasticsearch.constants.WriteProfile;
 import spring.boot.elasticsearch.exception.*;
+import spring.boot.elasticsearch.mapper.FastjsonHitMapper;
+import spring.boot.elasticsearch.mapper.HitMapper;
+import spring.boot.elasticsearch.mapper.SearchResults;
+import spring.boot.elasticsearch.metrics.ElasticsearchMetrics;
+import spring.boot.elasticsearch.metrics.SimpleElasticsearchMetrics;
+import spring.boot.elasticsearch.scroll.ScrollCursor;
+import spring.boot.elasticsearch.scroll.SlicedScroll;
 import spring.boot.elasticsearch.service.ElasticsearchService;
 import spring.boot.exception.*;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
+import spring.boot.elasticsearch.vo.CursorPage;
+import spring.boot.elasticsearch.vo.CursorPageVo;
 import spring.boot.elasticsearch.vo.IndexVo;
+import spring.boot.elasticsearch.vo.MultiSearchItem;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.DocWriteRequest;
-import org.elasticsearch.action.DocWriteResponse;
-import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.get.GetIndexRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
-import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.*;
-import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.common.xcontent.XContentBuilder;
-import org.elasticsearch.common.xcontent.json.JsonXContent;
-import org.elasticsearch.index.query.BoolQueryBuilder;
-import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
-import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchHit;
-import org.elasticsearch.search.builder.SearchSourceBuilder;
-import org.joda.time.Instant;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -58,8 +73,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_CURSOR_PAGE_SIZE;
 import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_FROM_SIZE;
 import static spring.boot.elasticsearch.constants.ElasticsearchConstants.DEFAULT_PAGE_SIZE;
 
@@ -101,6 +122,65 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
     @Autowired
     private ElasticsearchSearchProperties searchProperties;
 
+    /**
+     * Elasticsearch logging properties instance.
+     */
+    @Autowired
+    private ElasticsearchLoggingProperties loggingProperties;
+
+    /**
+     * Elasticsearch asynchronous bulk pipeline instance, absent when the pipeline is disabled.
+     */
+    @Autowired(required = false)
+    private ElasticsearchBulkPipeline bulkPipeline;
+
+    /**
+     * Elasticsearch adaptive bulk batcher instance.
+     */
+    @Autowired(required = false)
+    private AdaptiveBulkBatcher bulkBatcher;
+
+    /**
+     * Elasticsearch bulk request encoder instance, absent when direct encoding is disabled.
+     */
+    @Autowired(required = false)
+    private BulkEncoder bulkEncoder;
+
+    /**
+     * Elasticsearch update micro-batcher instance, absent unless update batching is enabled.
+     */
+    @Autowired(required = false)
+    private UpdateBatcher updateBatcher;
+
+    /**
+     * Elasticsearch search result cache instance, absent unless the cache is enabled.
+     */
+    @Autowired(required = false)
+    private SearchResultCache resultCache;
+
+    /**
+     * Elasticsearch identical search coalescer instance, absent when coalescing is disabled.
+     */
+    @Autowired(required = false)
+    private SearchCoalescer coalescer;
+
+    /**
+     * Elasticsearch search hit mapper instance.
+     */
+    @Autowired(required = false)
+    private HitMapper hitMapper = new FastjsonHitMapper();
+
+    /**
+     * Elasticsearch client metrics instance.
+     */
+    @Autowired(required = false)
+    private ElasticsearchMetrics metrics = new SimpleElasticsearchMetrics();
+
+    /**
+     * Suspended indices of the open bulk load sessions.
+     */
+    private final Map<String, BulkLoadSession.Suspension> bulkLoads = new HashMap<>();
+
     /**
      * Whether Elasticsearch client contains the index.
      * @param index The Elasticsearch index value.
@@ -109,15 +189,17 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      */
     public Boolean exists(String index) throws ElasticsearchExistsIndexException {
         Boolean flags = false;
+        long started = metrics.start("exists", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
-            GetIndexRequest request = new GetIndexRequest();
-            request.indices(index);
-            request.local(false);
-            request.humanReadable(true);
+            GetIndexRequest request = ElasticsearchRequests.exists(index);
             flags = restClient.indices().exists(request, RequestOptions.DEFAULT);
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
         }catch (IOException ex){
             log.error("Whether exists elasticsearch index {} found a fail, {}", index, ex);
             throw new ElasticsearchExistsIndexException();
+        }finally {
+            metrics.stop("exists", index, started, outcome);
         }
         return flags;
     }
@@ -132,48 +214,23 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         log.info("Delete elasticsearch index {}", index);
         DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest(index);
         AcknowledgedResponse acknowledgedResponse = null;
+        long started = metrics.start("deleteIndex", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
             acknowledgedResponse = restClient.indices().delete(deleteIndexRequest, RequestOptions.DEFAULT);
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
         } catch (IOException e) {
             log.error("Delete elasticsearch index {} found fail, {}", index, e);
             throw new ElasticsearchDeleteIndexException();
+        } finally {
+            metrics.stop("deleteIndex", index, started, outcome);
+            invalidate(index);
         }
         boolean acknowledged = acknowledgedResponse.isAcknowledged();
         log.info("Delete elasticsearch index {} finish, acknowledged is {}", index, acknowledged);
         return acknowledged;
     }
 
-    /**
-     * According to Elasticsearch index type and index settings collection go mapping Elasticsearch current Index.
-     * @param type Elasticsearch index type.
-     * @param indexCollections Elasticsearch index settings collection.
-     * @return XContent Builder After for mapping Elasticsearch current Index.
-     * @throws IOException Throws io exception.
-     */
-    private XContentBuilder mapping(String type, Collection<? extends IndexVo> indexCollections) throws ElasticsearchMappingException {
-        log.info("Create elasticsearch mapping index type {} settings {}", type,
-                JSON.toJSONStringWithDateFormat(indexCollections, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
-        XContentBuilder builder = null;
-        try {
-            builder = JsonXContent.contentBuilder().startObject().startObject(type).startObject("properties");
-            for (IndexVo indexVo : indexCollections) {
-                builder = builder.startObject(indexVo.getName());
-                Map<String, String> attr = indexVo.getAttr();
-                if (!attr.isEmpty()) {
-                    for (Map.Entry<String, String> entry : attr.entrySet()) {
-                        builder = builder.field(entry.getKey(), entry.getValue());
-                    }
-                }
-                builder = builder.endObject();
-            }
-            builder = builder.endObject().endObject().endObject();
-        }catch (IOException ex){
-            log.error("Elasticsearch mapping index type {} found a fail, {}", type, ex);
-            throw new ElasticsearchMappingException();
-        }
-        return builder;
-    }
-
     /**
      * According to Elasticsearch index and index type and alias name and index collection go Created Elasticsearch Index.
      * @param index Elasticsearch index.
@@ -190,44 +247,43 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
             ElasticsearchCreateIndexMustException, ElasticsearchCreateIndexException, ElasticsearchMappingException {
 
         log.info("Create elasticsearch index {} type {} alias Name {} settings {}", index, type, type,
-                JSON.toJSONStringWithDateFormat(indexCollections, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
+                payload("create", indexCollections));
 
-        if(StringUtils.isEmpty(index)){
-            throw new ElasticsearchCreateIndexNotFoundException();
-        }
-
-        if(StringUtils.isEmpty(type)){
-            type = ElasticsearchConstants.DEFAULT_INDEX_TYPE;
-        }
-
-        if(StringUtils.isEmpty(aliasName)){
-            aliasName = index.substring(0, 3);
-        }
+        return create(ElasticsearchRequests.create(properties, index, type, aliasName, indexCollections));
+    }
 
-        if(indexCollections.isEmpty()){
-            throw new ElasticsearchCreateIndexMustException();
-        }
+    /**
+     * Create the index of a {@link spring.boot.elasticsearch.annotations.Document} annotated class with the
+     * settings and mapping generated from its annotations.
+     * @param documentClass Elasticsearch document class.
+     * @return Whether create index acknowledged.
+     */
+    public Boolean create(Class<?> documentClass) throws ElasticsearchCreateIndexException, ElasticsearchMappingException {
+        IndexMapping indexMapping = IndexMapping.of(documentClass);
+        log.info("Create elasticsearch index {} type {} of document {}", indexMapping.getIndex(), indexMapping.getType(),
+                documentClass.getName());
+        return create(ElasticsearchRequests.create(properties, documentClass));
+    }
 
-        CreateIndexRequest request = new CreateIndexRequest(index);
-        PropertyMapper map = PropertyMapper.get();
-        Settings.Builder builder = Settings.builder();
-        map.from(properties::getIndex).whenNonNull().to( settings ->{
-            settings.forEach( (property, value) -> builder.put(property, value));
-        });
-        request.settings(builder);
-        request.mapping(type, mapping(type, indexCollections));
-        request.alias(new Alias(aliasName));
+    private Boolean create(CreateIndexRequest request) throws ElasticsearchCreateIndexException {
+        String index = request.index();
         CreateIndexResponse createIndexResponse = null;
+        long started = metrics.start("create", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
             createIndexResponse = restClient.indices().create(request, RequestOptions.DEFAULT);
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
         } catch (IOException e) {
             log.error("Create elasticsearch index {} found fail, {}", index, e);
             throw new ElasticsearchCreateIndexException();
+        } finally {
+            metrics.stop("create", index, started, outcome);
+            invalidate(index);
         }
         boolean acknowledged = createIndexResponse.isAcknowledged();
         boolean shardsAcknowledged = createIndexResponse.isShardsAcknowledged();
-        log.info("Create elasticsearch index {} type {} alias Name {} finish, acknowledged is {} shardsAcknowledged is {}",
-                index, type, aliasName, acknowledged, shardsAcknowledged);
+        log.info("Create elasticsearch index {} alias Name {} finish, acknowledged is {} shardsAcknowledged is {}",
+                index, request.aliases(), acknowledged, shardsAcknowledged);
         return acknowledged;
     }
 
@@ -240,45 +296,81 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      * @return Whether bulk entities to Elasticsearch.
      */
     public <T> Boolean bulk(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException {
+        return !bulkResult(index, type, routing, entities, null).hasFailures();
+    }
+
+    /**
+     * Batch add entities to Elasticsearch with the refresh and durability settings of write profile.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     * @param profile write profile, null for the configured request settings.
+     * @return Whether bulk entities to Elasticsearch.
+     */
+    public <T> Boolean bulk(String index, String type, String routing, Collection<T> entities, WriteProfile profile) throws ElasticsearchPersistenceException {
+        return !bulkResult(index, type, routing, entities, profile).hasFailures();
+    }
+
+    /**
+     * Elasticsearch index bulk save entities, items rejected with a retryable status are sent again
+     * with a bounded, jittered exponential backoff.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     * @return outcome of every entity by position.
+     */
+    public <T> BulkResult bulkResult(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException {
+        return bulkResult(index, type, routing, entities, null);
+    }
+
+    /**
+     * Elasticsearch index bulk save entities with the refresh and durability settings of write profile.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     * @param profile write profile, null for the configured request settings.
+     * @return outcome of every entity by position.
+     */
+    public <T> BulkResult bulkResult(String index, String type, String routing, Collection<T> entities, WriteProfile profile) throws ElasticsearchPersistenceException {
         log.info("Save elasticsearch index {} type {} Arguments {}", index, type,
-                JSON.toJSONStringWithDateFormat(entities, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
+                payload("bulk", entities));
 
-        if(StringUtils.isEmpty(type)){
-            type = ElasticsearchConstants.DEFAULT_INDEX_TYPE;
-        }
+        type = ElasticsearchRequests.type(type);
 
-        BulkRequest bulkRequest = new BulkRequest();
-        bulkRequest.timeout(TimeValue.timeValueMillis(requestProperties.getTimeout()));
-        bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.parse(requestProperties.getRefreshPolicy()));
-        bulkRequest.waitForActiveShards(requestProperties.getWaitForActiveShards());
-        for(T entity : entities){
-            IndexRequest indexRequest = new IndexRequest(index, type);
-            if(!StringUtils.isEmpty(routing)){
-                indexRequest.routing(routing);
-            }
-            indexRequest.opType(DocWriteRequest.OpType.INDEX).source(entity);
-            bulkRequest.add(indexRequest);
-        }
-        BulkResponse bulkResponse = null;
-        try {
-            bulkResponse = restClient.bulk(bulkRequest, RequestOptions.DEFAULT);
-        } catch (IOException e) {
-            log.error("Elasticsearch index {} type {} save entities {} find a fail, {}", index, type,
-                    JSON.toJSONStringWithDateFormat(entities, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect),
-                    e);
-            throw new ElasticsearchPersistenceException();
-        }
-        String buildFailureMessage = bulkResponse.buildFailureMessage();
-        if(!StringUtils.isEmpty(buildFailureMessage)){
-            log.error("Elasticsearch index {} type {} save entities {} build a fail message {}", index, type,
-                    JSON.toJSONStringWithDateFormat(entities, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), buildFailureMessage);
+        BulkRequest bulkRequest = ElasticsearchRequests.bulk(requestProperties, profile, index, type, routing, entities);
+        String indexType = type;
+        BulkResult bulkResult = bulkBatcher == null ? bulkSend(index, indexType, entities, bulkRequest)
+                : bulkBatcher.execute(bulkRequest, batch -> bulkSend(index, indexType, entities, batch));
+        if(bulkResult.hasFailures()){
+            List<BulkItemResult> failures = bulkResult.getFailures();
+            metrics.failures("bulk", index, failures.size());
+            log.error("Elasticsearch index {} type {} save entities {} {} items failed after {} attempts, first failure {}", index, type,
+                    payload("bulk", entities), failures.size(), bulkResult.getAttempts(), failures.get(0));
         }else{
-            Long ingestTookInMillis = bulkResponse.getIngestTookInMillis();
-            Integer itemLength = bulkResponse.getItems().length;
-            Long millis = TimeLength.getInstance().addAndGet(ingestTookInMillis);
-            log.info("Elasticsearch index {} type {} The time {} article Execution Time： {} millisecond， Total time consuming {} millisecond.", index, type, itemLength, ingestTookInMillis, millis);
+            log.info("Elasticsearch index {} type {} The time {} article Execution Time： {} millisecond， attempts {}.",
+                    index, type, bulkResult.getItems().size(), bulkResult.getTookMillis(), bulkResult.getAttempts());
         }
-        return !bulkResponse.hasFailures();
+        return bulkResult;
+    }
+
+    /**
+     * Hand entities to the asynchronous bulk pipeline, which flushes them by count, size or interval.
+     * Cached search results of the index are invalidated once the flushed bulk request completes.
+     * Falls back to a synchronous {@link #bulk(String, String, String, Collection)} when the pipeline is disabled.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entities Elasticsearh to save entities collection.
+     */
+    public <T> void ingest(String index, String type, String routing, Collection<T> entities) throws ElasticsearchPersistenceException {
+        if(bulkPipeline == null){
+            bulk(index, type, routing, entities);
+            return;
+        }
+        bulkPipeline.add(index, type, routing, entities);
     }
 
     /**
@@ -290,34 +382,58 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      * @return Whether update entity to Elasticsearch.
      */
     public <T> Boolean update(String index, String type, String routing, T entity) throws ElasticsearchPersistenceException {
-        log.info("Update elasticsearch index {} type {} Arguments {}", index, type,
-                JSON.toJSONStringWithDateFormat(entity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
-        TimeLength.getInstance().started();
-        if(StringUtils.isEmpty(type)){
-            type = ElasticsearchConstants.DEFAULT_INDEX_TYPE;
-        }
+        return update(index, type, routing, entity, null);
+    }
 
-        UpdateRequest updateRequest = new UpdateRequest();
-        updateRequest.timeout(TimeValue.timeValueMillis(requestProperties.getTimeout()));
-        updateRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.parse(requestProperties.getRefreshPolicy()));
-        updateRequest.waitForActiveShards(requestProperties.getWaitForActiveShards());
-        updateRequest.doc(entity);
-        if(!StringUtils.isEmpty(routing)){
-            updateRequest.routing(routing);
-        }
-        UpdateResponse updateResponse = null;
-        try {
-            updateResponse = restClient.update(updateRequest, RequestOptions.DEFAULT);
-        } catch (IOException e) {
-            log.error("Elasticsearch index {} type {} Update entities {} find a fail, {}", index, type,
-                    JSON.toJSONStringWithDateFormat(entity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect),
-                    e);
-            throw new ElasticsearchPersistenceException();
-        }
-        boolean flags =  updateResponse.getResult() == DocWriteResponse.Result.UPDATED;
-        Long millis = TimeLength.getInstance().stop();
-        log.info("Elasticsearch index {} type {} The time {} article Execution Time： {} millisecond， Total time consuming {} millisecond.", index, type, millis);
-        return flags;
+    /**
+     * Update entity with the refresh and durability settings of write profile.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param entity Elasticsearh to update entity.
+     * @param profile write profile, null for the configured request settings.
+     * @return Whether update entity to Elasticsearch.
+     */
+    public <T> Boolean update(String index, String type, String routing, T entity, WriteProfile profile) throws ElasticsearchPersistenceException {
+        return !updateResult(index, type, routing, null, entity, false, profile).isFailed();
+    }
+
+    /**
+     * Partially update the document id with entity.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param id Elasticsearch document id.
+     * @param entity Elasticsearh to update entity.
+     * @return Whether update entity to Elasticsearch.
+     */
+    public <T> Boolean update(String index, String type, String routing, String id, T entity) throws ElasticsearchPersistenceException {
+        return !updateResult(index, type, routing, id, entity, false, null).isFailed();
+    }
+
+    /**
+     * Partially update the document id with entity and report the item outcome. Concurrent updates
+     * of one index and write profile are gathered into bulk requests when update batching is enabled.
+     * @param index Elasticsearch index.
+     * @param type Elasticsearch type.
+     * @param routing Elasticsearch routing.
+     * @param id Elasticsearch document id.
+     * @param entity Elasticsearh to update entity.
+     * @param upsert whether to insert entity when the document is missing.
+     * @param profile write profile, null for the configured request settings.
+     * @return outcome of the update.
+     */
+    public <T> BulkItemResult updateResult(String index, String type, String routing, String id, T entity, boolean upsert,
+                                           WriteProfile profile) throws ElasticsearchPersistenceException {
+        log.debug("Update elasticsearch index {} type {} id {} Arguments {}", index, type, id,
+                payload("update", entity));
+        String indexType = ElasticsearchRequests.type(type);
+        UpdateRequest updateRequest = ElasticsearchRequests.update(requestProperties, profile, index, indexType, routing, id, entity, upsert);
+        BulkItemResult item = updateBatcher == null || StringUtils.isEmpty(updateRequest.id()) ? updateSend(index, indexType, entity, updateRequest)
+                : updateBatch(index, indexType, profile, updateRequest);
+        log.debug("Elasticsearch index {} type {} Update entity id {} status {} attempts {}.", index, indexType, item.getId(),
+                item.getStatus(), item.getAttempts());
+        return item;
     }
 
     public <Q>  Boolean delete(String index, String routing, Q  searchEntity) throws ElasticsearchPersistenceException {
@@ -334,41 +450,34 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      */
     public <Q>  Boolean delete(String index, String type, String routing, Q  searchEntity) throws ElasticsearchPersistenceException {
         log.info("Update elasticsearch index {} type {} Arguments {}", index, type,
-                JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
+                payload("delete", searchEntity));
 
-        if(StringUtils.isEmpty(type)){
-            type = ElasticsearchConstants.DEFAULT_INDEX_TYPE;
-        }
-
-        DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest();
-        deleteByQueryRequest.setTimeout(TimeValue.timeValueMillis(requestProperties.getTimeout()));
-        deleteByQueryRequest.setWaitForActiveShards(requestProperties.getWaitForActiveShards());
-        if(!StringUtils.isEmpty(routing)){
-            deleteByQueryRequest.setRouting(routing);
-        }
-        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
-        putMultiConditionFields(searchEntity, sourceBuilder);
-        sourceBuilder.timeout(new TimeValue(60, TimeUnit.SECONDS));
-        deleteByQueryRequest.setQuery(sourceBuilder.query());
+        DeleteByQueryRequest deleteByQueryRequest = ElasticsearchRequests.deleteByQuery(requestProperties, index, type, routing, searchEntity);
         BulkByScrollResponse bulkByScrollResponse = null;
+        long started = metrics.start("delete", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
             bulkByScrollResponse = restClient.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
+            outcome = bulkByScrollResponse.getBulkFailures().isEmpty() ? ElasticsearchMetrics.OUTCOME_SUCCESS : ElasticsearchMetrics.OUTCOME_FAILURE;
         } catch (IOException e) {
             log.error("Elasticsearch index {} type {} Delete entity {} find a fail, {}", index, type,
-                    JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect),
+                    payload("delete", searchEntity),
                     e);
             throw new ElasticsearchPersistenceException();
+        } finally {
+            metrics.stop("delete", index, started, outcome);
+            invalidate(index);
         }
-        Boolean hasFailures = bulkByScrollResponse.getBulkFailures().isEmpty();
+        metrics.documents("delete", index, bulkByScrollResponse.getDeleted());
+        Boolean hasFailures = !bulkByScrollResponse.getBulkFailures().isEmpty();
         if(hasFailures){
-            log.error("Elasticsearch index {} type {} Update entities {} build a fail message {}", index, type,
-                    JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect),
-                    JSON.toJSONStringWithDateFormat(bulkByScrollResponse.getBulkFailures(), "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect));
+            metrics.failures("delete", index, bulkByScrollResponse.getBulkFailures().size());
+            log.error("Elasticsearch index {} type {} Delete entities {} build a fail message {}", index, type,
+                    payload("delete", searchEntity),
+                    bulkByScrollResponse.getBulkFailures());
         }else{
-            Long ingestTookInMillis = bulkByScrollResponse.getTook().getMillis();
-            Integer itemLength = bulkByScrollResponse.getBatches();
-            Long millis = TimeLength.getInstance().addAndGet(ingestTookInMillis);
-            log.info("Elasticsearch index {} type {} The time {} article Execution Time： {} millisecond， Total time consuming {} millisecond.", index, type, itemLength, ingestTookInMillis, millis);
+            log.info("Elasticsearch index {} type {} The time {} article Execution Time： {} millisecond.", index, type,
+                    bulkByScrollResponse.getDeleted(), bulkByScrollResponse.getTook().getMillis());
         }
         return !hasFailures;
     }
@@ -400,31 +509,83 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      * @param routing Elasticsearch routing.
      * @param searchEntity search entity.
      * @param pageVo page vo.
-     * @return result collection.
+     * @return result collection, the entities of a cached result are shared between callers and read-only.
      */
     public <T, Q> List<T> search(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
-        SearchRequest searchRequest = new SearchRequest(index);
-        searchRequest.searchType(SearchType.DEFAULT);
-        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
-        putMultiConditionFields(searchEntity, sourceBuilder);
-        sourceBuilder.timeout(new TimeValue(searchProperties.getTimeout(), TimeUnit.MILLISECONDS));
-        if(!StringUtils.isEmpty(routing)){
-            searchRequest.routing(routing);
+        SearchRequest searchRequest = ElasticsearchRequests.search(searchProperties, index, routing, searchEntity, pageVo, clazz);
+        String cacheKey = null;
+        long generation = 0L;
+        if(resultCache != null){
+            cacheKey = SearchResultCache.key(clazz, Collections.singletonList(searchRequest));
+            List<T> cached = resultCache.get(index, cacheKey);
+            metrics.cache("search", index, cached != null);
+            if(cached != null){
+                return new ArrayList<>(cached);
+            }
+            generation = resultCache.generation(index);
         }
-        sourceBuilder.from(pageVo.getFrom()).size(pageVo.getSize());
-        searchRequest.source(sourceBuilder);
         SearchResponse response = null;
+        long started = metrics.start("search", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
-            response = restClient.search(searchRequest, RequestOptions.DEFAULT);
+            response = coalescer == null ? restClient.search(searchRequest, RequestOptions.DEFAULT)
+                    : coalescer.execute(searchRequest, () -> restClient.search(searchRequest, RequestOptions.DEFAULT));
+            outcome = response.getFailedShards() > 0 ? ElasticsearchMetrics.OUTCOME_FAILURE : ElasticsearchMetrics.OUTCOME_SUCCESS;
         } catch (IOException e1) {
             log.error("Elasticsearch index {} Search Arguments {} When find a fail, {}", index,
-                    JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), e1);
+                    payload("search", searchEntity), e1);
             throw new ElasticsearchSearchException();
+        } finally {
+            metrics.stop("search", index, started, outcome);
         }
         List<T>  searchList = mapResults(response, clazz);
+        metrics.documents("search", index, searchList.size());
+        if(resultCache != null && response.getFailedShards() == 0){
+            resultCache.put(index, cacheKey, new ArrayList<>(searchList), SearchResultCache.weigh(response), generation);
+        }
         return searchList;
     }
 
+    /**
+     * Elasticsearch index search after searchEntity to Get one cursor page.
+     * @param index Elasticsearch index.
+     * @param searchEntity search entity.
+     * @param cursor continuation cursor of the previous page, empty for the first page.
+     * @return cursor page.
+     */
+    public <T, Q> CursorPage<T> searchAfter(String index, Q searchEntity, String cursor, Class<T> clazz) throws ElasticsearchSearchException {
+        return this.searchAfter(index, "", searchEntity, new CursorPageVo(cursor, DEFAULT_CURSOR_PAGE_SIZE), clazz);
+    }
+
+    /**
+     * Elasticsearch index search after searchEntity to Get one cursor page, page latency does not
+     * grow with the page depth and is not bound by max_result_window.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntity search entity.
+     * @param pageVo cursor page vo.
+     * @return cursor page.
+     */
+    public <T, Q> CursorPage<T> searchAfter(String index, String routing, Q searchEntity, CursorPageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
+        SearchRequest searchRequest = ElasticsearchRequests.searchAfter(searchProperties, index, routing, searchEntity, pageVo, clazz);
+        SearchResponse response = null;
+        long started = metrics.start("searchAfter", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
+        try {
+            response = restClient.search(searchRequest, RequestOptions.DEFAULT);
+            outcome = response.getFailedShards() > 0 ? ElasticsearchMetrics.OUTCOME_FAILURE : ElasticsearchMetrics.OUTCOME_SUCCESS;
+        } catch (IOException e1) {
+            log.error("Elasticsearch index {} Search After Arguments {} When find a fail, {}", index,
+                    payload("searchAfter", searchEntity), e1);
+            throw new ElasticsearchSearchException();
+        } finally {
+            metrics.stop("searchAfter", index, started, outcome);
+        }
+        CursorPage<T> page = SearchResults.page(response, clazz, hitMapper, pageVo.getSize());
+        metrics.documents("searchAfter", index, page.getContent().size());
+        return page;
+    }
+
     /**
      * Elasticsearch index scroll searchEntity to Get result collection.
      * @param index Elasticsearch index.
@@ -451,61 +612,122 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      * @param index Elasticsearch index.
      * @param routing Elasticsearch routing.
      * @param searchEntity search entity.
+     * @param pageVo page vo, size is the scroll page size.
      * @return result collection.
      */
     public <T, Q> List<T> scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
         List<T>  searchList = new ArrayList<>();
-        List<String>  scrollIdList = new ArrayList<>();
-        SearchRequest searchRequest = new SearchRequest(index);
-        searchRequest.searchType(SearchType.DEFAULT);
-        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
-        putMultiConditionFields(searchEntity, sourceBuilder);
-        sourceBuilder.timeout(new TimeValue(searchProperties.getTimeout(), TimeUnit.MILLISECONDS));
-        if(!StringUtils.isEmpty(routing)){
-            searchRequest.routing(routing);
+        scroll(index, routing, searchEntity, pageVo, clazz, searchList::addAll);
+        return searchList;
+    }
+
+    /**
+     * Elasticsearch index scroll searchEntity and push each result page to consumer.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntity search entity.
+     * @param pageVo page vo, size is the scroll page size.
+     * @param consumer result page consumer.
+     */
+    public <T, Q> void scroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz,
+                              Consumer<List<T>> consumer) throws ElasticsearchSearchException {
+        try (ScrollCursor<T> cursor = openScroll(index, routing, searchEntity, pageVo, clazz, null)) {
+            while (cursor.hasNext()) {
+                consumer.accept(cursor.next());
+            }
         }
-        sourceBuilder.from(pageVo.getFrom()).size(pageVo.getSize());
-        searchRequest.source(sourceBuilder);
-        SearchResponse response = null;
+    }
+
+    /**
+     * Elasticsearch index scroll searchEntity to Get lazily pulled result stream,
+     * the stream must be closed to clear the scroll context when not fully consumed.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntity search entity.
+     * @param pageVo page vo, size is the scroll page size.
+     * @return result stream.
+     */
+    public <T, Q> Stream<T> scrollStream(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
+        return openScroll(index, routing, searchEntity, pageVo, clazz, null).stream();
+    }
+
+    /**
+     * Elasticsearch index sliced scroll searchEntity to Get merged result stream, slices are pulled concurrently.
+     * The stream must be closed to cancel the slices when not fully consumed.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntity search entity.
+     * @param pageVo page vo, size is the scroll page size of every slice.
+     * @param slices slice count, defaults to the index shard count when null.
+     * @return merged result stream.
+     */
+    public <T, Q> Stream<T> scrollSliced(String index, String routing, Q searchEntity, PageVo pageVo, Integer slices,
+                                         Class<T> clazz) throws ElasticsearchSearchException {
+        return openSlicedScroll(index, routing, searchEntity, pageVo, slices, clazz).stream();
+    }
+
+    /**
+     * Elasticsearch index sliced scroll searchEntity and push each slice result page to consumer,
+     * the consumer is called concurrently from the slice threads.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntity search entity.
+     * @param pageVo page vo, size is the scroll page size of every slice.
+     * @param slices slice count, defaults to the index shard count when null.
+     * @param consumer slice id and result page consumer.
+     */
+    public <T, Q> void scrollSliced(String index, String routing, Q searchEntity, PageVo pageVo, Integer slices,
+                                    Class<T> clazz, BiConsumer<Integer, List<T>> consumer) throws ElasticsearchSearchException {
+        try (SlicedScroll<T> slicedScroll = openSlicedScroll(index, routing, searchEntity, pageVo, slices, clazz)) {
+            slicedScroll.forEach(consumer);
+        }
+    }
+
+    private <T, Q> SlicedScroll<T> openSlicedScroll(String index, String routing, Q searchEntity, PageVo pageVo, Integer slices,
+                                                    Class<T> clazz) throws ElasticsearchSearchException {
+        int max = slices == null ? numberOfShards(index) : slices;
+        int parallelism = Math.max(1, Math.min(max, searchProperties.getSliceParallelism()));
+        return new SlicedScroll<>(max, parallelism, id ->
+                openScroll(index, routing, searchEntity, pageVo, clazz, max > 1 ? new SliceBuilder(id, max) : null));
+    }
+
+    private int numberOfShards(String index) throws ElasticsearchSearchException {
+        GetSettingsRequest request = new GetSettingsRequest().indices(index).names(IndexMetaData.SETTING_NUMBER_OF_SHARDS);
+        GetSettingsResponse response = null;
         try {
-            response = restClient.search(searchRequest, RequestOptions.DEFAULT);
-        } catch (IOException e1) {
-            log.error("Elasticsearch index {} Search Arguments {} When find a fail, {}", index,
-                    JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), e1);
+            response = restClient.indices().getSettings(request, RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            log.error("Elasticsearch index {} Get number of shards When find a fail, {}", index, e);
             throw new ElasticsearchSearchException();
         }
-        if(response != null){
-            searchList.addAll( mapResults(response, clazz) );
-            String scrollId = response.getScrollId();
-            if(!StringUtils.isEmpty(scrollId)){
-                scrollIdList.add(scrollId);
-                for(SearchHit [] searchHits = null; ((searchHits = response.getHits().getHits()) != null
-                        && searchHits.length > 0); ){
-                    Scroll scroll = new Scroll(TimeValue.timeValueMinutes(1L));
-                    SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
-                    scrollRequest.scroll(scroll);
-                    try {
-                        response = restClient.scroll(scrollRequest, RequestOptions.DEFAULT);
-                    } catch (IOException e) {
-                        log.error("Elasticsearch index {} Cursor Search Arguments {} When find a fail, {}", index,
-                                JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), e);
-                        throw new ElasticsearchSearchException();
-                    }
-                }
-            }
+        int shards = 1;
+        Iterator<Settings> settings = response.getIndexToSettings().valuesIt();
+        while (settings.hasNext()) {
+            shards = Math.max(shards, settings.next().getAsInt(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1));
         }
-        if(!scrollIdList.isEmpty()){
-            try {
-                ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
-                clearScrollRequest.setScrollIds(scrollIdList);
-                ClearScrollResponse clearScrollResponse = restClient.clearScroll(clearScrollRequest,RequestOptions.DEFAULT);
-            } catch (IOException e) {
-                log.error("Elasticsearch index {} Clear Cursor Search Arguments {} When find a fail, {}", index,
-                        JSON.toJSONStringWithDateFormat(searchEntity, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), e);
-                throw new ElasticsearchSearchException();
-            }
+        return shards;
+    }
+
+    private <T, Q> ScrollCursor<T> openScroll(String index, String routing, Q searchEntity, PageVo pageVo, Class<T> clazz,
+                                              @Nullable SliceBuilder slice) throws ElasticsearchSearchException {
+        SearchRequest searchRequest = ElasticsearchRequests.scroll(searchProperties, index, routing, searchEntity, pageVo, clazz, slice);
+        long started = metrics.start("scroll", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
+        try {
+            ScrollCursor<T> cursor = new ScrollCursor<>(restClient, searchRequest, response -> {
+                List<T> page = mapResults(response, clazz);
+                metrics.documents("scroll", index, page.size());
+                return page;
+            });
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
+            return cursor;
+        } catch (IOException e1) {
+            log.error("Elasticsearch index {} Search Arguments {} When find a fail, {}", index,
+                    payload("scroll", searchEntity), e1);
+            throw new ElasticsearchSearchException();
+        } finally {
+            metrics.stop("scroll", index, started, outcome);
         }
-        return searchList;
     }
 
     /**
@@ -537,144 +759,223 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
      * @return result collection.
      */
     public <T, Q> List<T> msearch(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
-        Instant instant = Instant.now();
-        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
-        Instant searchInstant = Instant.now();
-        multiSearchRequest.maxConcurrentSearchRequests(20);
-        searchEntities.stream().forEach(searchEntity ->{
-            SearchRequest searchRequest = new SearchRequest(index);
-//            searchRequest.searchType(SearchType.QUERY_THEN_FETCH);
-            searchRequest.searchType(SearchType.DFS_QUERY_THEN_FETCH);
-            SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
-//            sourceBuilder.fetchSource(FetchSourceContext.DO_NOT_FETCH_SOURCE);
-            sourceBuilder.fetchSource(true);
-//            sourceBuilder.explain(true);
-            putMultiConditionFields(searchEntity, sourceBuilder);
-            sourceBuilder.timeout(new TimeValue(60, TimeUnit.SECONDS));
-            if(!StringUtils.isEmpty(routing)){
-                searchRequest.routing(routing);
+        List<T> searchList = new ArrayList<>();
+        for (MultiSearchItem<T> item : msearchGrouped(index, routing, searchEntities, pageVo, clazz)) {
+            searchList.addAll(item.getContent());
+        }
+        return searchList;
+    }
+
+    /**
+     * Elasticsearch index search searchEntities to Get one result group per search entity, large
+     * search entity lists are split into several concurrent multi search requests.
+     * @param index Elasticsearch index.
+     * @param routing Elasticsearch routing.
+     * @param searchEntities search entities.
+     * @param pageVo page vo.
+     * @return result groups in search entity order, failed queries carry their failure, the entities of
+     * cached groups are shared between callers and read-only.
+     */
+    public <T, Q> List<MultiSearchItem<T>> msearchGrouped(String index, String routing, List<Q> searchEntities, PageVo pageVo, Class<T> clazz) throws ElasticsearchSearchException {
+        List<MultiSearchRequest> multiSearchRequests = ElasticsearchRequests.msearchChunks(searchProperties, index, routing, searchEntities, pageVo, clazz);
+        String cacheKey = null;
+        long generation = 0L;
+        if(resultCache != null){
+            List<SearchRequest> searchRequests = new ArrayList<>();
+            multiSearchRequests.forEach(multiSearchRequest -> searchRequests.addAll(multiSearchRequest.requests()));
+            cacheKey = SearchResultCache.key(clazz, searchRequests);
+            List<MultiSearchItem<T>> cached = resultCache.get(index, cacheKey);
+            metrics.cache("msearch", index, cached != null);
+            if(cached != null){
+                return new ArrayList<>(cached);
             }
-            sourceBuilder.from(pageVo.getFrom()).size(pageVo.getSize());
-            searchRequest.source(sourceBuilder);
-            multiSearchRequest.add(searchRequest);
-        });
-
-        log.info("Elasticsearch searchEntities foreach used Time {} ms", Instant.now().minus(searchInstant.getMillis()).getMillis());
-        MultiSearchResponse multiSearchResponse = null;
-        Instant instant1 = Instant.now();
+            generation = resultCache.generation(index);
+        }
+        List<MultiSearchResponse> multiSearchResponses = null;
+        long started = metrics.start("msearch", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
         try {
-            multiSearchResponse = restClient.msearch(multiSearchRequest, RequestOptions.DEFAULT);
-        } catch (IOException e1) {
+            multiSearchResponses = MultiSearches.execute(restClient, multiSearchRequests, searchProperties.getMsearchParallelism()).join();
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
+        } catch (CompletionException e1) {
             log.error("Elasticsearch index {} Search Arguments {} When find a fail, {}", index,
-                    JSON.toJSONStringWithDateFormat(searchEntities, "yyyy-MM-dd hh:mm:ss", SerializerFeature.DisableCircularReferenceDetect), e1);
+                    payload("msearch", searchEntities), e1.getCause());
             throw new ElasticsearchSearchException();
+        } finally {
+            metrics.stop("msearch", index, started, outcome);
         }
-        log.info("Elasticsearch msearch used Time {} ms", Instant.now().minus(instant1.getMillis()).getMillis());
-        Instant instant2 = Instant.now();
-        List<T>  searchList = mapResults(multiSearchResponse, clazz);
-        log.info("Elasticsearch mapResults used Time {} ms", Instant.now().minus(instant2.getMillis()).getMillis());
-        log.info("Search Elasticsearch index {} Total time consuming：{} millisecond", index, Instant.now().minus(instant.getMillis()).getMillis());
-        return searchList;
+        List<MultiSearchItem<T>> items = SearchResults.group(multiSearchResponses, clazz, hitMapper);
+        long documents = 0L;
+        for (MultiSearchItem<T> item : items) {
+            if(item.isFailed()){
+                metrics.failures("msearch", index, 1);
+                log.warn("Elasticsearch index {} Multi Search query {} Arguments {} When find a fail, {}", index, item.getPosition(),
+                        payload("msearch", searchEntities.get(item.getPosition())), item.getFailure());
+            }
+            documents += item.getContent().size();
+        }
+        metrics.documents("msearch", index, documents);
+        if(resultCache != null && items.stream().noneMatch(MultiSearchItem::isFailed)){
+            long bytes = 0L;
+            for (MultiSearchResponse multiSearchResponse : multiSearchResponses) {
+                for (MultiSearchResponse.Item item : multiSearchResponse.getResponses()) {
+                    bytes += SearchResultCache.weigh(item.getResponse());
+                }
+            }
+            resultCache.put(index, cacheKey, new ArrayList<>(items), bytes, generation);
+        }
+        return items;
     }
 
-    private <Q> void putMultiConditionFields(Q result, SearchSourceBuilder sourceBuilder) {
-        if (sourceBuilder != null && result != null) {
-            BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-            for (java.lang.reflect.Field field : result.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                Field scriptedField = field.getAnnotation(Field.class);
-                String name;
-                Object propertyValue = null;
-                if (scriptedField != null) {
-                    name = scriptedField.name().isEmpty() ? field.getName() : scriptedField.name();
-                } else {
-                    name = field.getName();
-                }
+    /**
+     * Open a bulk load session of index, refreshes and replicas stay suspended until the last open session
+     * of the index is closed. Only the first session saves the original settings, an index whose refreshes
+     * are already disabled outside of this service is refused.
+     * @param index Elasticsearch index.
+     * @return bulk load session.
+     */
+    public BulkLoadSession openBulkLoad(String index) throws ElasticsearchPersistenceException {
+        synchronized (bulkLoads) {
+            BulkLoadSession.Suspension suspension = bulkLoads.get(index);
+            if (suspension == null) {
                 try {
-                    propertyValue = field.get(result);
-                    if (!StringUtils.isEmpty(propertyValue)) {
-                        if(scriptedField.in()){
-                            BoolQueryBuilder childBoolQueryBuilder = QueryBuilders.boolQuery();
-                            String [] propValues = null;
-                            if(propertyValue instanceof String[]){
-                                propValues = (String []) propertyValue;
-                            }else if(propertyValue instanceof String){
-                                boolean flags = ((String) propertyValue).indexOf(",") != -1;
-                                if(flags){
-                                    propValues = ((String) propertyValue).split(",");
-                                }
-                            }else{
-                                propValues = new String[1];
-                                propValues[0] = (String) propertyValue;
-                            }
-                            if(propValues != null){
-                                for(String propValue : propValues){
-                                    childBoolQueryBuilder.should(QueryBuilders.termsQuery(name, propValue));
-                                }
-                                boolQueryBuilder.must(childBoolQueryBuilder);
-                            }
-                        }else{
-                            boolQueryBuilder.must(QueryBuilders.matchQuery(name, propertyValue));
-                        }
-                    }
-                } catch (IllegalArgumentException e) {
-                    throw new ElasticsearchException(
-                            "failed to set scripted field: " + name + " with value: " + propertyValue, e);
-                } catch (IllegalAccessException e) {
-                    throw new ElasticsearchException("failed to access scripted field: " + name, e);
+                    suspension = BulkLoadSession.Suspension.suspend(restClient, index);
+                } catch (IOException e) {
+                    log.error("Elasticsearch index {} open bulk load session find a fail, {}", index, e);
+                    throw new ElasticsearchPersistenceException();
                 }
+                bulkLoads.put(index, suspension);
             }
-            sourceBuilder.query(boolQueryBuilder);
+            suspension.acquire();
         }
+        return new BulkLoadSession(this, index, () -> closeBulkLoad(index));
     }
 
-    private <T> void populateScriptFields(T result, SearchHit hit) {
-        if (hit.getFields() != null && !hit.getFields().isEmpty() && result != null) {
-            for (java.lang.reflect.Field field : result.getClass().getDeclaredFields()) {
-                Field scriptedField = field.getAnnotation(Field.class);
-                if (scriptedField != null) {
-                    String name = scriptedField.name().isEmpty() ? field.getName() : scriptedField.name();
-                    DocumentField searchHitField = hit.getFields().get(name);
-                    if (searchHitField != null) {
-                        field.setAccessible(true);
-                        try {
-                            field.set(result, searchHitField.getValue());
-                        } catch (IllegalArgumentException e) {
-                            throw new ElasticsearchException(
-                                    "failed to set scripted field: " + name + " with value: " + searchHitField.getValue(), e);
-                        } catch (IllegalAccessException e) {
-                            throw new ElasticsearchException("failed to access scripted field: " + name, e);
-                        }
-                    }
+    /**
+     * Release one bulk load session of index, the last one resumes refreshes and replicas.
+     */
+    private void closeBulkLoad(String index) throws ElasticsearchPersistenceException {
+        synchronized (bulkLoads) {
+            BulkLoadSession.Suspension suspension = bulkLoads.get(index);
+            if (suspension == null || suspension.release() > 0) {
+                return;
+            }
+            bulkLoads.remove(index);
+            suspension.resume(requestProperties.getBulkLoadMaxNumSegments());
+        }
+    }
+
+    /**
+     * Send one bulk request, retrying the items rejected with a retryable status.
+     */
+    private <T> BulkResult bulkSend(String index, String type, Collection<T> entities, BulkRequest bulkRequest) throws ElasticsearchPersistenceException {
+        BulkRetry retry = new BulkRetry(bulkRequest, requestProperties);
+        boolean again;
+        do {
+            BulkRequest attempt = retry.request();
+            long started = metrics.start("bulk", index);
+            String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
+            try {
+                BulkResponse bulkResponse = bulkEncoder == null ? restClient.bulk(attempt, RequestOptions.DEFAULT)
+                        : bulkEncoder.execute(restClient, attempt);
+                outcome = bulkResponse.hasFailures() ? ElasticsearchMetrics.OUTCOME_FAILURE : ElasticsearchMetrics.OUTCOME_SUCCESS;
+                again = retry.onResponse(bulkResponse);
+            } catch (ElasticsearchStatusException e) {
+                if(!retry.retryable(e)){
+                    log.error("Elasticsearch index {} type {} save entities {} find a fail, {}", index, type,
+                            payload("bulk", entities), e);
+                    throw new ElasticsearchPersistenceException();
                 }
+                again = retry.onFailure(e);
+            } catch (IOException e) {
+                log.error("Elasticsearch index {} type {} save entities {} find a fail, {}", index, type,
+                        payload("bulk", entities),
+                        e);
+                throw new ElasticsearchPersistenceException();
+            } finally {
+                metrics.stop("bulk", index, started, outcome);
+                invalidate(index);
             }
+            metrics.documents("bulk", index, attempt.numberOfActions());
+            metrics.bytes("bulk", index, attempt.estimatedSizeInBytes());
+            if(again){
+                long backoff = retry.backoff();
+                log.warn("Elasticsearch index {} type {} retry {} rejected items in {} millisecond", index, type,
+                        retry.request().numberOfActions(), backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ElasticsearchPersistenceException();
+                }
+            }
+        } while (again);
+        return retry.result();
+    }
+
+    /**
+     * Send one update request, a rejected document update is reported as a failed item.
+     */
+    private <T> BulkItemResult updateSend(String index, String type, T entity, UpdateRequest updateRequest) throws ElasticsearchPersistenceException {
+        long started = metrics.start("update", index);
+        String outcome = ElasticsearchMetrics.OUTCOME_ERROR;
+        try {
+            UpdateResponse updateResponse = restClient.update(updateRequest, RequestOptions.DEFAULT);
+            outcome = ElasticsearchMetrics.OUTCOME_SUCCESS;
+            metrics.documents("update", index, 1);
+            return new BulkItemResult(0, updateResponse.getId(), updateResponse.status().getStatus(), null, 1);
+        } catch (ElasticsearchStatusException e) {
+            outcome = ElasticsearchMetrics.OUTCOME_FAILURE;
+            metrics.failures("update", index, 1);
+            return new BulkItemResult(0, updateRequest.id(), e.status().getStatus(), e.getMessage(), 1);
+        } catch (IOException e) {
+            log.error("Elasticsearch index {} type {} Update entities {} find a fail, {}", index, type,
+                    payload("update", entity),
+                    e);
+            throw new ElasticsearchPersistenceException();
+        } finally {
+            metrics.stop("update", index, started, outcome);
+            invalidate(index);
         }
     }
 
-    public <T> List<T> mapResults(MultiSearchResponse responses, Class<T> clazz) {
-        List<T> list = new ArrayList<>();
-        Instant start = Instant.now();
-        Arrays.stream(responses.getResponses()).forEach(response -> {
-            if (!response.isFailure() ) {
-                Arrays.stream(response.getResponse().getHits().getHits()).forEach(searchHit -> {
-                    T result = mapEntity(searchHit.getSourceAsString(), clazz);
-                    populateScriptFields(result, searchHit);
-                    list.add(result);
-                });
+    /**
+     * Add one update request to the open batch of index and type and wait for its item outcome.
+     */
+    private BulkItemResult updateBatch(String index, String type, WriteProfile profile, UpdateRequest updateRequest) throws ElasticsearchPersistenceException {
+        BulkItemResult item;
+        try {
+            item = updateBatcher.submit(index, type, profile, updateRequest, batch -> bulkSend(index, type,
+                    batch.requests().stream().map(DocWriteRequest::id).collect(Collectors.toList()), batch)).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof ElasticsearchPersistenceException){
+                throw (ElasticsearchPersistenceException) e.getCause();
             }
-        });
-        log.info(" Elasticsearch map Results cost Time {} ms", Instant.now().minus(start.getMillis()).getMillis());
-        return list;
+            log.error("Elasticsearch index {} type {} Update batch find a fail, {}", index, type, e.getCause());
+            throw new ElasticsearchPersistenceException();
+        }
+        return new BulkItemResult(0, item.getId(), item.getStatus(), item.getReason(), item.getAttempts());
+    }
+
+    /**
+     * Drop the cached search results of index after a write.
+     */
+    private void invalidate(String index) {
+        if(resultCache != null){
+            resultCache.invalidate(index);
+        }
+    }
+
+    private Payload payload(String operation, Object argument) {
+        return Payload.of(loggingProperties, operation, argument);
+    }
+
+    public <T> List<T> mapResults(MultiSearchResponse responses, Class<T> clazz) {
+        return SearchResults.map(responses, clazz, hitMapper);
     }
 
     public <T> List<T> mapResults(SearchResponse response, Class<T> clazz) {
-        List<T> list = new ArrayList<>();
-        Arrays.stream(response.getHits().getHits()).forEach(searchHit -> {
-            T result = mapEntity(searchHit.getSourceAsString(), clazz);
-            populateScriptFields(result, searchHit);
-            list.add(result);
-        });
-        return list;
+        return SearchResults.map(response, clazz, hitMapper);
     }
 
     public <T> T mapToObject(String source, Class<T> clazz) throws IOException {
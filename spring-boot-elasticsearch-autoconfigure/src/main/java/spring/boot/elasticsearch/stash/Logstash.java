@@ -1,20 +1,27 @@
 package spring.boot.elasticsearch.stash;
 
-import spring.boot.elasticsearch.service.ElasticsearchService;
+import spring.boot.elasticsearch.config.ElasticsearchLoggingProperties;
+import spring.boot.elasticsearch.metrics.ElasticsearchMetrics;
+import spring.boot.elasticsearch.vo.BulkItemResult;
+import spring.boot.elasticsearch.vo.BulkResult;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.joda.time.Instant;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  *
- * Intercept send servlet request stats summary payload millis.
+ * Intercept Elasticsearch service calls and time them with {@link System#nanoTime()}. Slow calls are
+ * logged at warn level and a sample of the other calls at debug level, nothing is formatted when the
+ * level is off. Call counts and latencies are recorded by the service itself through {@link ElasticsearchMetrics}.
  *
  * @author OAK
  * @since 2019/06/25 13:07:00 PM.
@@ -27,39 +34,67 @@ import java.util.concurrent.atomic.AtomicLong;
 @EnableAspectJAutoProxy(exposeProxy = true)
 public class Logstash {
 
+    private static final String NO_INDEX = "-";
+
     /**
-     * payload summary stats.
+     * Elasticsearch logging properties instance.
      */
-    private AtomicLong total = new AtomicLong(0);
+    @Autowired
+    private ElasticsearchLoggingProperties loggingProperties;
 
     /**
-     * Current Service for Aspect point cut method to stat payload.
+     * Elasticsearch service interface calls.
      */
-    @Pointcut("execution(* spring.boot.elasticsearch.rest.service.*.*(..))")
+    @Pointcut("execution(public * spring.boot.elasticsearch.service.ElasticsearchService.*(..))")
     private void payload(){
 
     }
 
     /**
-     * Around advice.
+     * Around advice, a returned stream is timed until the caller closes it since its scroll
+     * requests are only sent while it is consumed.
      * @param pjp Current Service for Aspect proceeding join point.
      * @return proceed object.
      * @throws Throwable Throwable object.
      */
     @Around("payload()")
-    public  Object doAround(ProceedingJoinPoint pjp) throws Throwable{
-        Instant instant = Instant.now();
-        Object obj = pjp.proceed();
-        Long millis = Instant.now().minus(instant.getMillis()).getMillis();
-        Long sumMillis = total.addAndGet(millis);
-        Object target = pjp.getTarget();
-        if(target instanceof ElasticsearchService){
-            log.info("Pass to method：{}，Arguments：{}，Execution time：{} nanosecond，Time consuming：{} millisecond, Total time consuming：{} millisecond",
-                    pjp.getSignature().toString(), ""/*Arrays.toString(pjp.getArgs())*/, millis*1000000, millis, sumMillis);
-        }else{
-            log.info("Pass to method：{}，Arguments：{}，Execution time：{} nanosecond，Time consuming：{} millisecond",
-                    pjp.getSignature().toString(), ""/*Arrays.toString(pjp.getArgs())*/, millis*1000000, millis);
+    public Object doAround(ProceedingJoinPoint pjp) throws Throwable{
+        long started = System.nanoTime();
+        Object result;
+        try {
+            result = pjp.proceed();
+        } catch (Throwable e) {
+            log(pjp, ElasticsearchMetrics.OUTCOME_ERROR, started);
+            throw e;
+        }
+        if (result instanceof Stream) {
+            return ((Stream<?>) result).onClose(() -> log(pjp, ElasticsearchMetrics.OUTCOME_SUCCESS, started));
+        }
+        log(pjp, outcome(result), started);
+        return result;
+    }
+
+    private void log(ProceedingJoinPoint pjp, String outcome, long started) {
+        long nanos = System.nanoTime() - started;
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(loggingProperties.getSlowThreshold())) {
+            log.warn("Elasticsearch slow call {} index {} outcome {}, Execution time：{} nanosecond，Time consuming：{} millisecond",
+                    pjp.getSignature().getName(), index(pjp.getArgs()), outcome, nanos, TimeUnit.NANOSECONDS.toMillis(nanos));
+        } else if (log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < loggingProperties.getTraceSampleRate()) {
+            log.debug("Elasticsearch call {} index {} outcome {}, Execution time：{} nanosecond，Time consuming：{} millisecond",
+                    pjp.getSignature().getName(), index(pjp.getArgs()), outcome, nanos, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    private static String index(Object[] args) {
+        return args.length > 0 && args[0] instanceof String ? (String) args[0] : NO_INDEX;
+    }
+
+    private static String outcome(Object result) {
+        if (Boolean.FALSE.equals(result)
+                || result instanceof BulkResult && ((BulkResult) result).hasFailures()
+                || result instanceof BulkItemResult && ((BulkItemResult) result).isFailed()) {
+            return ElasticsearchMetrics.OUTCOME_FAILURE;
         }
-        return obj;
+        return ElasticsearchMetrics.OUTCOME_SUCCESS;
     }
 }
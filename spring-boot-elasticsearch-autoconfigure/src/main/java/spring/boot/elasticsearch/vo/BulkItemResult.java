@@ -0,0 +1,46 @@
+package spring.boot.elasticsearch.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Elasticseacrh bulk item outcome value object.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+public class BulkItemResult extends BaseVo {
+
+    /**
+     * item position in the submitted entities collection.
+     */
+    private Integer position;
+
+    /**
+     * document id.
+     */
+    private String id;
+
+    /**
+     * http status of the last attempt.
+     */
+    private Integer status;
+
+    /**
+     * failure reason of the last attempt, null when the item succeeded.
+     */
+    private String reason;
+
+    /**
+     * number of times the item was sent.
+     */
+    private Integer attempts;
+
+    public boolean isFailed() {
+        return reason != null;
+    }
+
+}
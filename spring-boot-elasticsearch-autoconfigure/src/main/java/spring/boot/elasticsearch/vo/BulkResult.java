@@ -0,0 +1,48 @@
+package spring.boot.elasticsearch.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticseacrh bulk result value object, reports the outcome of every item by position.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+public class BulkResult extends BaseVo {
+
+    /**
+     * item outcomes in submitted order.
+     */
+    private List<BulkItemResult> items;
+
+    /**
+     * number of bulk requests sent, retries included.
+     */
+    private Integer attempts;
+
+    /**
+     * summed took time of every bulk request in milliseconds.
+     */
+    private Long tookMillis;
+
+    /**
+     * summed ingest pipeline took time of every bulk request in milliseconds.
+     */
+    private Long ingestTookMillis;
+
+    public boolean hasFailures() {
+        return items.stream().anyMatch(BulkItemResult::isFailed);
+    }
+
+    public List<BulkItemResult> getFailures() {
+        return items.stream().filter(BulkItemResult::isFailed).collect(Collectors.toList());
+    }
+
+}
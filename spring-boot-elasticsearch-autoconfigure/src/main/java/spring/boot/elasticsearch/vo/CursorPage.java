@@ -0,0 +1,38 @@
+package spring.boot.elasticsearch.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Elasticseacrh search after result page value object.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> extends BaseVo {
+
+    /**
+     * page results.
+     */
+    private List<T> content;
+
+    /**
+     * Opaque continuation cursor of the next page, null on the last page.
+     */
+    private String cursor;
+
+    /**
+     * total hits, only counted on the first page.
+     */
+    private Long totalHits;
+
+    public boolean hasNext() {
+        return cursor != null;
+    }
+
+}
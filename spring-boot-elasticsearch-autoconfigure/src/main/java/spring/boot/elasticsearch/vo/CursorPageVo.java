@@ -0,0 +1,56 @@
+package spring.boot.elasticsearch.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.elasticsearch.search.sort.SortOrder;
+import spring.boot.elasticsearch.constants.ElasticsearchConstants;
+
+/**
+ * Elasticseacrh search after cursor page value object.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageVo extends BaseVo {
+
+    /**
+     * Continuation cursor of the previous page, empty for the first page.
+     */
+    private String cursor;
+
+    /**
+     * page size.
+     */
+    private Integer size = ElasticsearchConstants.DEFAULT_CURSOR_PAGE_SIZE;
+
+    /**
+     * sort field, the keyword tie breaker field is always appended, sorted by the tie breaker alone when empty.
+     */
+    private String sort;
+
+    /**
+     * sort order.
+     */
+    private SortOrder order = SortOrder.ASC;
+
+    /**
+     * explicit _source includes, derived from the result class when empty.
+     */
+    private String[] includes;
+
+    /**
+     * explicit _source excludes.
+     */
+    private String[] excludes;
+
+    public CursorPageVo(String cursor, Integer size) {
+        this.cursor = cursor;
+        this.size = size;
+    }
+
+}
@@ -0,0 +1,43 @@
+package spring.boot.elasticsearch.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Elasticseacrh multi search result value object of one input query.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+public class MultiSearchItem<T> extends BaseVo {
+
+    /**
+     * input query position.
+     */
+    private Integer position;
+
+    /**
+     * query results, empty when the query failed.
+     */
+    private List<T> content;
+
+    /**
+     * total hits of the query.
+     */
+    private Long totalHits;
+
+    /**
+     * failure reason, null when the query succeeded.
+     */
+    private String failure;
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+}
@@ -2,6 +2,7 @@ package spring.boot.elasticsearch.vo;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Elasticseacrh index value object.
@@ -11,6 +12,7 @@ import lombok.Data;
  * @version 1.0
  */
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class PageVo extends BaseVo {
 
@@ -24,4 +26,19 @@ public class PageVo extends BaseVo {
      */
     private Integer size;
 
+    /**
+     * explicit _source includes, derived from the result class when empty.
+     */
+    private String[] includes;
+
+    /**
+     * explicit _source excludes.
+     */
+    private String[] excludes;
+
+    public PageVo(Integer from, Integer size) {
+        this.from = from;
+        this.size = size;
+    }
+
 }
@@ -0,0 +1,144 @@
+package spring.boot.elasticsearch.bulk;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * Encoded bulk bodies are read back by the Elasticsearch bulk parser, every item must come back
+ * with the metadata and source it was built with.
+ *
+ * @author OAK
+ * @since 2019/06/25 16:17:00 PM.
+ * @version 1.0
+ *
+ */
+class BulkEncoderTest {
+
+    private static final String SOURCE = "{\"name\":\"\u00fcn\u00efc\u00f6d\u00e9 \\\"value\\\"\"}";
+
+    @Test
+    void escapesIdsAndRoutings() throws IOException {
+        String[] values = {"plain", "\"quoted\"", "back\\slash", "tab\tnew\nline\u0001", "\u00fcn\u00efc\u00f6d\u00e9 \u2713 \uD83D\uDE00"};
+        BulkRequest request = new BulkRequest();
+        for (String value : values) {
+            request.add(new IndexRequest("test", "doc", value).routing(value).source(SOURCE, XContentType.JSON));
+        }
+        byte[] body = encode(request);
+        String text = new String(body, StandardCharsets.UTF_8);
+        assertEquals(values.length * 2, text.split("\n").length);
+        assertTrue(text.endsWith("\n"));
+
+        BulkRequest parsed = parse(body);
+        assertEquals(values.length, parsed.numberOfActions());
+        for (int i = 0; i < values.length; i++) {
+            IndexRequest item = (IndexRequest) parsed.requests().get(i);
+            assertEquals("test", item.index());
+            assertEquals("doc", item.type());
+            assertEquals(values[i], item.id());
+            assertEquals(values[i], item.routing());
+            assertEquals(SOURCE, item.source().utf8ToString());
+        }
+    }
+
+    @Test
+    void encodesIndexVersionAndPipeline() throws IOException {
+        BulkRequest request = new BulkRequest();
+        request.add(new IndexRequest("test", "doc", "1").source(SOURCE, XContentType.JSON)
+                .version(7L).versionType(VersionType.EXTERNAL).setPipeline("ingest"));
+        request.add(new IndexRequest("test", "doc").source(SOURCE, XContentType.JSON).create(true));
+
+        BulkRequest parsed = parse(encode(request));
+        IndexRequest versioned = (IndexRequest) parsed.requests().get(0);
+        assertEquals(DocWriteRequest.OpType.INDEX, versioned.opType());
+        assertEquals(7L, versioned.version());
+        assertEquals(VersionType.EXTERNAL, versioned.versionType());
+        assertEquals("ingest", versioned.getPipeline());
+        IndexRequest created = (IndexRequest) parsed.requests().get(1);
+        assertEquals(DocWriteRequest.OpType.CREATE, created.opType());
+        assertNull(created.id());
+        assertEquals(SOURCE, created.source().utf8ToString());
+    }
+
+    @Test
+    void encodesUpdateRetryOnConflictAndDocument() throws IOException {
+        BulkRequest request = new BulkRequest();
+        request.add(new UpdateRequest("test", "doc", "1").routing("r1").retryOnConflict(3)
+                .doc(Collections.singletonMap("name", "updated \"name\"")).docAsUpsert(true));
+        request.add(new UpdateRequest("test", "doc", "2").doc(Collections.singletonMap("count", 1)));
+
+        BulkRequest parsed = parse(encode(request));
+        assertEquals(2, parsed.numberOfActions());
+        UpdateRequest retried = (UpdateRequest) parsed.requests().get(0);
+        assertEquals("1", retried.id());
+        assertEquals("r1", retried.routing());
+        assertEquals(3, retried.retryOnConflict());
+        assertTrue(retried.docAsUpsert());
+        assertEquals("updated \"name\"", retried.doc().sourceAsMap().get("name"));
+        UpdateRequest plain = (UpdateRequest) parsed.requests().get(1);
+        assertEquals(0, plain.retryOnConflict());
+        assertEquals(1, plain.doc().sourceAsMap().get("count"));
+    }
+
+    @Test
+    void encodesDeleteWithoutSourceLineAndSequenceNumbers() throws IOException {
+        BulkRequest request = new BulkRequest();
+        request.add(new DeleteRequest("test", "doc", "1").setIfSeqNo(5L).setIfPrimaryTerm(1L));
+        request.add(new DeleteRequest("test", "doc", "2").version(3L).versionType(VersionType.EXTERNAL_GTE));
+        request.add(new IndexRequest("test", "doc", "3").source(SOURCE, XContentType.JSON).setIfSeqNo(9L).setIfPrimaryTerm(2L));
+
+        byte[] body = encode(request);
+        assertEquals(4, new String(body, StandardCharsets.UTF_8).split("\n").length);
+
+        BulkRequest parsed = parse(body);
+        DeleteRequest conditional = (DeleteRequest) parsed.requests().get(0);
+        assertEquals("1", conditional.id());
+        assertEquals(5L, conditional.ifSeqNo());
+        assertEquals(1L, conditional.ifPrimaryTerm());
+        DeleteRequest versioned = (DeleteRequest) parsed.requests().get(1);
+        assertEquals(3L, versioned.version());
+        assertEquals(VersionType.EXTERNAL_GTE, versioned.versionType());
+        IndexRequest indexed = (IndexRequest) parsed.requests().get(2);
+        assertEquals("3", indexed.id());
+        assertEquals(9L, indexed.ifSeqNo());
+        assertEquals(2L, indexed.ifPrimaryTerm());
+        assertEquals(SOURCE, indexed.source().utf8ToString());
+    }
+
+    @Test
+    void rejectsNonJsonSources() {
+        BulkRequest request = new BulkRequest();
+        request.add(new IndexRequest("test", "doc", "1").source(Collections.singletonMap("name", "value"), XContentType.SMILE));
+        assertThrows(IllegalArgumentException.class, () -> encode(request));
+    }
+
+    private static byte[] encode(BulkRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkEncoder.encode(request, out);
+        return out.toByteArray();
+    }
+
+    private static BulkRequest parse(byte[] body) throws IOException {
+        BulkRequest parsed = new BulkRequest();
+        parsed.add(new BytesArray(body), null, null, XContentType.JSON);
+        return parsed;
+    }
+
+}
@@ -0,0 +1,73 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import lombok.Data;
+import spring.boot.elasticsearch.annotations.DateFormat;
+import spring.boot.elasticsearch.annotations.Document;
+import spring.boot.elasticsearch.annotations.Field;
+import spring.boot.elasticsearch.annotations.FieldType;
+import spring.boot.elasticsearch.annotations.Id;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Benchmark document, a typical catalogue entity with text, keyword, numeric and date fields.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+@Document(indexName = "benchmark", type = "doc", shards = 1, replicas = 0)
+public class BenchmarkDocument {
+
+    /**
+     * document id.
+     */
+    @Id
+    @Field(type = FieldType.Keyword)
+    private String id;
+
+    /**
+     * document title.
+     */
+    @Field(type = FieldType.Text, analyzer = "standard", copyTo = "all")
+    private String title;
+
+    /**
+     * document description.
+     */
+    @Field(type = FieldType.Text, copyTo = "all")
+    private String description;
+
+    /**
+     * document category.
+     */
+    @Field(type = FieldType.Keyword)
+    private String category;
+
+    /**
+     * document tags.
+     */
+    @Field(type = FieldType.Keyword)
+    private List<String> tags;
+
+    /**
+     * document price.
+     */
+    @Field
+    private Double price;
+
+    /**
+     * document stock.
+     */
+    @Field
+    private Integer stock;
+
+    /**
+     * document created time.
+     */
+    @Field(type = FieldType.Date, format = DateFormat.date_optional_time)
+    private Date created;
+
+}
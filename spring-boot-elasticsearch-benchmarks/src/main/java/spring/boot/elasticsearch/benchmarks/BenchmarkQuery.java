@@ -0,0 +1,37 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import lombok.Data;
+import spring.boot.elasticsearch.annotations.Field;
+
+/**
+ * Benchmark search entity, term conditions and one comma separated in condition.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+public class BenchmarkQuery {
+
+    /**
+     * category condition.
+     */
+    private String category;
+
+    /**
+     * title condition.
+     */
+    private String title;
+
+    /**
+     * comma separated tags condition.
+     */
+    @Field(name = "tags", in = true)
+    private String tags;
+
+    /**
+     * stock condition.
+     */
+    private Integer stock;
+
+}
@@ -0,0 +1,71 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spring.boot.elasticsearch.bulk.BulkEncoder;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.config.ElasticsearchRequestProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk request building of entity batches, the entities are serialized into index requests, and
+ * the NDJSON encoding of the built requests by the {@link BulkEncoder}.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BulkRequestBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int entities;
+
+    private List<BenchmarkDocument> documents;
+
+    private ElasticsearchRequestProperties properties;
+
+    private BulkRequest bulkRequest;
+
+    private ByteArrayOutputStream body;
+
+    @Setup
+    public void setup() {
+        documents = Fixtures.documents(entities);
+        properties = new ElasticsearchRequestProperties();
+        bulkRequest = ElasticsearchRequests.bulk(properties, "benchmark", "doc", null, documents);
+        body = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, bulkRequest.estimatedSizeInBytes() * 2));
+    }
+
+    @Benchmark
+    public BulkRequest bulk() {
+        return ElasticsearchRequests.bulk(properties, "benchmark", "doc", null, documents);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        body.reset();
+        BulkEncoder.encode(bulkRequest, body);
+        return body.size();
+    }
+
+}
@@ -0,0 +1,149 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import com.alibaba.fastjson.JSON;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import spring.boot.elasticsearch.vo.IndexVo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Canned benchmark data, documents are generated from a fixed seed so that every run measures
+ * the same payloads, and search responses are parsed from canned JSON without any cluster.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+public final class Fixtures {
+
+    private static final String[] CATEGORIES = {"books", "music", "garden", "sports", "toys", "tools"};
+
+    private static final String[] WORDS = {"quick", "brown", "fox", "jumps", "over", "lazy", "dog", "elastic",
+            "search", "spring", "boot", "client", "bulk", "index", "query", "mapping"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * Generate documents.
+     * @param count documents count.
+     * @return documents.
+     */
+    public static List<BenchmarkDocument> documents(int count) {
+        Random random = new Random(42L);
+        List<BenchmarkDocument> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BenchmarkDocument document = new BenchmarkDocument();
+            document.setId(String.valueOf(i));
+            document.setTitle(words(random, 6));
+            document.setDescription(words(random, 40));
+            document.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            document.setTags(Arrays.asList(WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]));
+            document.setPrice(random.nextInt(100000) / 100.0D);
+            document.setStock(random.nextInt(1000));
+            document.setCreated(new Date(1561392000000L + random.nextInt(Integer.MAX_VALUE)));
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * Search entity with term and in conditions.
+     * @return search entity.
+     */
+    public static BenchmarkQuery query() {
+        BenchmarkQuery query = new BenchmarkQuery();
+        query.setCategory("books");
+        query.setTitle("quick brown fox");
+        query.setTags("spring,boot,elastic");
+        query.setStock(10);
+        return query;
+    }
+
+    /**
+     * Canned search response JSON of the documents.
+     * @param documents hit sources.
+     * @return search response JSON.
+     */
+    public static String searchResponseJson(List<BenchmarkDocument> documents) {
+        StringBuilder json = new StringBuilder(documents.size() * 512);
+        json.append("{\"took\":3,\"timed_out\":false,\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},")
+                .append("\"hits\":{\"total\":").append(documents.size()).append(",\"max_score\":1.0,\"hits\":[");
+        for (int i = 0; i < documents.size(); i++) {
+            BenchmarkDocument document = documents.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"_index\":\"benchmark\",\"_type\":\"doc\",\"_id\":\"").append(document.getId())
+                    .append("\",\"_score\":1.0,\"_source\":").append(JSON.toJSONString(document)).append('}');
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * Parse a canned search response.
+     * @param json search response JSON.
+     * @return search response.
+     */
+    public static SearchResponse searchResponse(String json) {
+        try (XContentParser parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, json)) {
+            return SearchResponse.fromXContent(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hand built index settings of {@link BenchmarkDocument}, the input of the legacy mapping builder.
+     * @return index settings collection.
+     */
+    public static List<IndexVo> indexVos() {
+        List<IndexVo> indexVos = new ArrayList<>();
+        indexVos.add(indexVo("id", "type", "keyword"));
+        indexVos.add(indexVo("title", "type", "text", "analyzer", "standard", "copy_to", "all"));
+        indexVos.add(indexVo("description", "type", "text", "copy_to", "all"));
+        indexVos.add(indexVo("category", "type", "keyword"));
+        indexVos.add(indexVo("tags", "type", "keyword"));
+        indexVos.add(indexVo("price", "type", "double"));
+        indexVos.add(indexVo("stock", "type", "integer"));
+        indexVos.add(indexVo("created", "type", "date", "format", "date_optional_time"));
+        return Collections.unmodifiableList(indexVos);
+    }
+
+    private static IndexVo indexVo(String name, String... attributes) {
+        Map<String, String> attr = new LinkedHashMap<>();
+        for (int i = 0; i < attributes.length; i += 2) {
+            attr.put(attributes[i], attributes[i + 1]);
+        }
+        IndexVo indexVo = new IndexVo();
+        indexVo.setName(name);
+        indexVo.setAttr(attr);
+        return indexVo;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            words.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+
+}
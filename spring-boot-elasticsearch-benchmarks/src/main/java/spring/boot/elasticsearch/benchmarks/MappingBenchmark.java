@@ -0,0 +1,59 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.common.IndexMapping;
+import spring.boot.elasticsearch.config.ElasticsearchProperties;
+import spring.boot.elasticsearch.vo.IndexVo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index mapping XContent generation, the index settings collection builder against the cached
+ * {@link IndexMapping} of the document class.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private List<IndexVo> indexVos;
+
+    private ElasticsearchProperties properties;
+
+    @Setup
+    public void setup() {
+        indexVos = Fixtures.indexVos();
+        properties = new ElasticsearchProperties();
+    }
+
+    @Benchmark
+    public BytesReference mapping() {
+        return BytesReference.bytes(ElasticsearchRequests.mapping("doc", indexVos));
+    }
+
+    @Benchmark
+    public CreateIndexRequest documentMapping() {
+        return IndexMapping.of(BenchmarkDocument.class).request(properties);
+    }
+
+}
@@ -0,0 +1,61 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spring.boot.elasticsearch.common.ElasticsearchRequests;
+import spring.boot.elasticsearch.config.ElasticsearchSearchProperties;
+import spring.boot.elasticsearch.vo.PageVo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search request building, the search entity conditions and the whole request with paging and source filtering.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchRequestBenchmark {
+
+    private ElasticsearchSearchProperties properties;
+
+    private BenchmarkQuery query;
+
+    private PageVo pageVo;
+
+    @Setup
+    public void setup() {
+        properties = new ElasticsearchSearchProperties();
+        query = Fixtures.query();
+        pageVo = new PageVo(0, 20);
+    }
+
+    @Benchmark
+    public SearchSourceBuilder putMultiConditionFields() {
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+        ElasticsearchRequests.putMultiConditionFields(query, sourceBuilder);
+        return sourceBuilder;
+    }
+
+    @Benchmark
+    public SearchRequest search() {
+        return ElasticsearchRequests.search(properties, "benchmark", null, query, pageVo, BenchmarkDocument.class);
+    }
+
+}
@@ -0,0 +1,84 @@
+package spring.boot.elasticsearch.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elasticsearch.action.search.SearchResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spring.boot.elasticsearch.mapper.FastjsonHitMapper;
+import spring.boot.elasticsearch.mapper.HitMapper;
+import spring.boot.elasticsearch.mapper.JacksonHitMapper;
+import spring.boot.elasticsearch.mapper.SearchResults;
+import spring.boot.elasticsearch.service.impl.ElasticsearchServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search result mapping of canned search responses, the response parsing, the hit mapping with
+ * each {@link HitMapper} and the service source mapping.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResultsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int hits;
+
+    @Param({"fastjson", "jackson"})
+    private String mapper;
+
+    private String json;
+
+    private String source;
+
+    private SearchResponse response;
+
+    private HitMapper hitMapper;
+
+    private ElasticsearchServiceImpl elasticsearchService;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.searchResponseJson(Fixtures.documents(hits));
+        response = Fixtures.searchResponse(json);
+        source = response.getHits().getAt(0).getSourceAsString();
+        hitMapper = "jackson".equals(mapper)
+                ? new JacksonHitMapper(new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES))
+                : new FastjsonHitMapper();
+        elasticsearchService = new ElasticsearchServiceImpl();
+    }
+
+    @Benchmark
+    public SearchResponse parse() {
+        return Fixtures.searchResponse(json);
+    }
+
+    @Benchmark
+    public List<BenchmarkDocument> mapResults() {
+        return SearchResults.map(response, BenchmarkDocument.class, hitMapper);
+    }
+
+    @Benchmark
+    public BenchmarkDocument mapEntity() {
+        return elasticsearchService.mapEntity(source, BenchmarkDocument.class);
+    }
+
+}
@@ -0,0 +1,384 @@
+package spring.boot.elasticsearch.benchmarks.load;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
+import spring.boot.elasticsearch.benchmarks.BenchmarkDocument;
+import spring.boot.elasticsearch.benchmarks.Fixtures;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in Elasticsearch HTTP server on the loopback interface, answers the bulk, update, search,
+ * multi search, scroll and delete by query endpoints of the REST client with canned responses.
+ * Every response is delayed by the configured latency, and whole requests or single bulk items are
+ * rejected with 429 at the configured rates, so the client can be loaded without any cluster.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Slf4j
+public class FakeElasticsearchServer implements AutoCloseable {
+
+    private static final String REJECTED = "{\"error\":{\"root_cause\":[{\"type\":\"es_rejected_execution_exception\","
+            + "\"reason\":\"rejected execution of coordinating operation\"}],\"type\":\"es_rejected_execution_exception\","
+            + "\"reason\":\"rejected execution of coordinating operation\"},\"status\":429}";
+
+    private static final String ITEM_REJECTED = "\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\","
+            + "\"reason\":\"rejected execution of processing of bulk item\"}";
+
+    private static final String SHARDS = "\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+
+    private final FakeServerProperties properties;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    /**
+     * Canned hits of one search page.
+     */
+    private final String hits;
+
+    /**
+     * Remaining pages per open scroll.
+     */
+    private final ConcurrentMap<String, AtomicInteger> scrolls = new ConcurrentHashMap<>();
+
+    private final AtomicLong scrollIds = new AtomicLong();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Served requests per endpoint.
+     */
+    private final ConcurrentMap<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder itemRejections = new LongAdder();
+
+    public FakeElasticsearchServer(FakeServerProperties properties) throws IOException {
+        this.properties = properties;
+        this.hits = hits(Fixtures.documents(properties.getHits()));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("fake-elasticsearch-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(properties.getThreads(), threadFactory);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start accepting requests.
+     * @return this server.
+     */
+    public FakeElasticsearchServer start() {
+        server.start();
+        log.info("Fake elasticsearch server listening on {}, {}", getUri(), properties);
+        return this;
+    }
+
+    /**
+     * Server URI for {@code spring.boot.elasticsearch.rest.uris}.
+     * @return server URI.
+     */
+    public String getUri() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Served requests per endpoint.
+     * @return served requests.
+     */
+    public Map<String, Long> getRequests() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getItemRejections() {
+        return itemRejections.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            byte[] body = StreamUtils.copyToByteArray(exchange.getRequestBody());
+            String endpoint = endpoint(method, path);
+            requests.computeIfAbsent(endpoint, ignored -> new LongAdder()).increment();
+            delay();
+            if (endpoint.startsWith("_") && ThreadLocalRandom.current().nextDouble() < properties.getRejectionRate()) {
+                rejections.increment();
+                send(exchange, 429, REJECTED);
+                return;
+            }
+            switch (endpoint) {
+                case "_bulk":
+                    send(exchange, 200, bulk(index(path), body));
+                    break;
+                case "_update":
+                    send(exchange, 200, update(path));
+                    break;
+                case "_search":
+                    send(exchange, 200, search(query != null && query.contains("scroll="), 0));
+                    break;
+                case "_search/scroll":
+                    send(exchange, 200, scroll(body));
+                    break;
+                case "_clear_scroll":
+                    send(exchange, 200, clearScroll(body));
+                    break;
+                case "_msearch":
+                    send(exchange, 200, msearch(body));
+                    break;
+                case "_delete_by_query":
+                    send(exchange, 200, deleteByQuery());
+                    break;
+                case "exists":
+                    exchange.sendResponseHeaders(200, -1);
+                    break;
+                case "create":
+                    send(exchange, 200, "{\"acknowledged\":true,\"shards_acknowledged\":true,\"index\":\"" + index(path) + "\"}");
+                    break;
+                case "delete":
+                    send(exchange, 200, "{\"acknowledged\":true}");
+                    break;
+                default:
+                    send(exchange, 400, "{\"error\":{\"root_cause\":[],\"type\":\"illegal_argument_exception\",\"reason\":\"no handler for "
+                            + method + " " + path + "\"},\"status\":400}");
+            }
+        } catch (RuntimeException | IOException e) {
+            log.warn("Fake elasticsearch server request {} {} find a fail, {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            send(exchange, 500, "{\"error\":{\"root_cause\":[],\"type\":\"exception\",\"reason\":\"" + e.getClass().getName()
+                    + "\"},\"status\":500}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Endpoint name of the request path, the index administration requests are named after their method.
+     */
+    private static String endpoint(String method, String path) {
+        if (path.endsWith("/_search/scroll")) {
+            return "DELETE".equals(method) ? "_clear_scroll" : "_search/scroll";
+        }
+        String last = path.substring(path.lastIndexOf('/') + 1);
+        if (last.startsWith("_")) {
+            return last;
+        }
+        if (path.indexOf('/', 1) < 0 && !path.equals("/")) {
+            switch (method) {
+                case "HEAD":
+                    return "exists";
+                case "PUT":
+                    return "create";
+                case "DELETE":
+                    return "delete";
+                default:
+            }
+        }
+        return method + " " + path;
+    }
+
+    private static String index(String path) {
+        int end = path.indexOf('/', 1);
+        String index = end < 0 ? path.substring(1) : path.substring(1, end);
+        return index.startsWith("_") ? "" : index;
+    }
+
+    private String bulk(String defaultIndex, byte[] body) {
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        StringBuilder items = new StringBuilder(lines.length * 128);
+        boolean errors = false;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            JSONObject action = JSON.parseObject(lines[i]);
+            String opType = action.keySet().iterator().next();
+            JSONObject metadata = action.getJSONObject(opType);
+            if (!"delete".equals(opType)) {
+                i++;
+            }
+            String index = metadata.getString("_index") == null ? defaultIndex : metadata.getString("_index");
+            String type = metadata.getString("_type") == null ? "doc" : metadata.getString("_type");
+            String id = metadata.getString("_id") == null ? Long.toString(sequence.incrementAndGet()) : metadata.getString("_id");
+            if (items.length() > 0) {
+                items.append(',');
+            }
+            items.append("{\"").append(opType).append("\":{\"_index\":\"").append(index).append("\",\"_type\":\"").append(type)
+                    .append("\",\"_id\":\"").append(id).append("\",");
+            if (ThreadLocalRandom.current().nextDouble() < properties.getBulkFailureRate()) {
+                errors = true;
+                itemRejections.increment();
+                items.append(ITEM_REJECTED);
+            } else {
+                items.append(written(opType)).append(",\"_version\":1,\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},")
+                        .append("\"_seq_no\":").append(sequence.incrementAndGet()).append(",\"_primary_term\":1,\"status\":")
+                        .append("create".equals(opType) || "index".equals(opType) ? 201 : 200);
+            }
+            items.append("}}");
+        }
+        return "{\"took\":1,\"errors\":" + errors + ",\"items\":[" + items + "]}";
+    }
+
+    private static String written(String opType) {
+        switch (opType) {
+            case "update":
+                return "\"result\":\"updated\"";
+            case "delete":
+                return "\"result\":\"deleted\"";
+            default:
+                return "\"result\":\"created\"";
+        }
+    }
+
+    private String update(String path) {
+        String[] segments = path.substring(1).split("/");
+        return "{\"_index\":\"" + segments[0] + "\",\"_type\":\"" + segments[1] + "\",\"_id\":\"" + segments[2]
+                + "\",\"_version\":2,\"result\":\"updated\",\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},"
+                + "\"_seq_no\":" + sequence.incrementAndGet() + ",\"_primary_term\":1}";
+    }
+
+    /**
+     * Search response with one page of hits, an opened scroll reports every remaining page in its total.
+     */
+    private String search(boolean scroll, int status) {
+        StringBuilder response = new StringBuilder(hits.length() + 256).append('{');
+        long total = properties.getHits();
+        if (scroll) {
+            String scrollId = "scroll-" + scrollIds.incrementAndGet();
+            scrolls.put(scrollId, new AtomicInteger(properties.getScrollPages() - 1));
+            response.append("\"_scroll_id\":\"").append(scrollId).append("\",");
+            total = (long) properties.getHits() * properties.getScrollPages();
+        }
+        response.append("\"took\":1,\"timed_out\":false,").append(SHARDS).append(",\"hits\":{\"total\":").append(total)
+                .append(",\"max_score\":1.0,\"hits\":").append(hits).append('}');
+        if (status > 0) {
+            response.append(",\"status\":").append(status);
+        }
+        return response.append('}').toString();
+    }
+
+    private String scroll(byte[] body) {
+        String scrollId = JSON.parseObject(new String(body, StandardCharsets.UTF_8)).getString("scroll_id");
+        AtomicInteger remaining = scrolls.get(scrollId);
+        boolean page = remaining != null && remaining.getAndDecrement() > 0;
+        return "{\"_scroll_id\":\"" + scrollId + "\",\"took\":1,\"timed_out\":false," + SHARDS + ",\"hits\":{\"total\":"
+                + (long) properties.getHits() * properties.getScrollPages() + ",\"max_score\":1.0,\"hits\":" + (page ? hits : "[]") + "}}";
+    }
+
+    private String clearScroll(byte[] body) {
+        List<String> scrollIds = JSON.parseObject(new String(body, StandardCharsets.UTF_8)).getJSONArray("scroll_id").toJavaList(String.class);
+        int freed = 0;
+        for (String scrollId : scrollIds) {
+            if (scrolls.remove(scrollId) != null) {
+                freed++;
+            }
+        }
+        return "{\"succeeded\":true,\"num_freed\":" + freed + "}";
+    }
+
+    private String msearch(byte[] body) {
+        int searches = 0;
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                searches++;
+            }
+        }
+        StringBuilder responses = new StringBuilder();
+        for (int i = 0; i < searches / 2; i++) {
+            if (i > 0) {
+                responses.append(',');
+            }
+            responses.append(search(false, 200));
+        }
+        return "{\"took\":1,\"responses\":[" + responses + "]}";
+    }
+
+    private String deleteByQuery() {
+        int deleted = properties.getHits();
+        return "{\"took\":1,\"timed_out\":false,\"total\":" + deleted + ",\"updated\":0,\"created\":0,\"deleted\":" + deleted
+                + ",\"batches\":1,\"version_conflicts\":0,\"noops\":0,\"retries\":{\"bulk\":0,\"search\":0},"
+                + "\"throttled_millis\":0,\"requests_per_second\":-1.0,\"throttled_until_millis\":0,\"failures\":[]}";
+    }
+
+    private void delay() {
+        long nanos = properties.getLatency().toNanos();
+        long jitter = properties.getLatencyJitter().toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter);
+        }
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String hits(List<BenchmarkDocument> documents) {
+        StringBuilder hits = new StringBuilder(documents.size() * 512).append('[');
+        for (int i = 0; i < documents.size(); i++) {
+            BenchmarkDocument document = documents.get(i);
+            if (i > 0) {
+                hits.append(',');
+            }
+            hits.append("{\"_index\":\"benchmark\",\"_type\":\"doc\",\"_id\":\"").append(document.getId())
+                    .append("\",\"_score\":1.0,\"_source\":").append(JSON.toJSONString(document))
+                    .append(",\"sort\":[").append(i).append("]}");
+        }
+        return hits.append(']').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        } catch (IOException e) {
+            log.debug("Fake elasticsearch server response {} find a fail, {}", status, e);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package spring.boot.elasticsearch.benchmarks.load;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the stand-in Elasticsearch server, its response latency and injected faults.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+public class FakeServerProperties {
+
+    /**
+     * Minimum latency added to every response.
+     */
+    private Duration latency = Duration.ofMillis(2);
+
+    /**
+     * Random latency added on top of the minimum latency, uniformly distributed up to this value.
+     */
+    private Duration latencyJitter = Duration.ofMillis(3);
+
+    /**
+     * Probability of rejecting a whole request with 429 Too Many Requests.
+     */
+    private double rejectionRate = 0.0D;
+
+    /**
+     * Probability of rejecting one bulk item with 429 while the other items succeed.
+     */
+    private double bulkFailureRate = 0.0D;
+
+    /**
+     * Hits returned by every search and scroll page.
+     */
+    private int hits = 20;
+
+    /**
+     * Scroll pages returned before a scroll is exhausted.
+     */
+    private int scrollPages = 3;
+
+    /**
+     * Server worker threads, the latency is spent on these threads.
+     */
+    private int threads = 64;
+
+}
@@ -0,0 +1,94 @@
+package spring.boot.elasticsearch.benchmarks.load;
+
+import spring.boot.elasticsearch.metrics.ElasticsearchMetrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latencies and outcomes of the calls of one load thread, merged once the load is over.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+public class LatencyRecorder {
+
+    private long[] latencies = new long[4096];
+
+    private int count;
+
+    private long successes;
+
+    private long failures;
+
+    private long errors;
+
+    /**
+     * Record one call.
+     * @param outcome call outcome, one of the {@link ElasticsearchMetrics} outcomes.
+     * @param nanos call latency.
+     */
+    public void record(String outcome, long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count << 1);
+        }
+        latencies[count++] = nanos;
+        if (ElasticsearchMetrics.OUTCOME_SUCCESS.equals(outcome)) {
+            successes++;
+        } else if (ElasticsearchMetrics.OUTCOME_FAILURE.equals(outcome)) {
+            failures++;
+        } else {
+            errors++;
+        }
+    }
+
+    /**
+     * Merge the recorders of every load thread, the merged latencies are sorted.
+     * @param recorders thread recorders.
+     * @return merged recorder.
+     */
+    public static LatencyRecorder merge(List<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        merged.latencies = new long[Math.max(1, recorders.stream().mapToInt(recorder -> recorder.count).sum())];
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, merged.latencies, merged.count, recorder.count);
+            merged.count += recorder.count;
+            merged.successes += recorder.successes;
+            merged.failures += recorder.failures;
+            merged.errors += recorder.errors;
+        }
+        Arrays.sort(merged.latencies, 0, merged.count);
+        return merged;
+    }
+
+    /**
+     * Latency percentile of a merged recorder.
+     * @param percentile percentile between 0 and 100.
+     * @return latency in nanoseconds, 0 when nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0L;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0D * count);
+        return latencies[Math.min(count, Math.max(1, rank)) - 1];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+}
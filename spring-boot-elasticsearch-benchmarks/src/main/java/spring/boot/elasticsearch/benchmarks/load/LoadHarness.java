@@ -0,0 +1,212 @@
+package spring.boot.elasticsearch.benchmarks.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import spring.boot.elasticsearch.benchmarks.BenchmarkDocument;
+import spring.boot.elasticsearch.benchmarks.BenchmarkQuery;
+import spring.boot.elasticsearch.benchmarks.Fixtures;
+import spring.boot.elasticsearch.metrics.ElasticsearchMetrics;
+import spring.boot.elasticsearch.service.ElasticsearchService;
+import spring.boot.elasticsearch.vo.PageVo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load harness of the Elasticsearch service against the stand-in server on localhost. Every
+ * operation is called by concurrent threads for a warm up and a measured period, and its
+ * throughput, outcomes and latency percentiles are reported. Callers run closed loop by default,
+ * with {@code load.rate} they send calls on a fixed schedule and latency is measured from the
+ * scheduled time, so that stalls are not hidden by coordinated omission. Any {@code load.*}
+ * setting and any client property can be passed as a command line argument, for example:
+ * <pre>
+ * java -cp benchmarks.jar spring.boot.elasticsearch.benchmarks.load.LoadHarness --load.threads=32
+ *      --load.operations=bulk,search --load.rate=2000 --load.server.latency=5ms
+ *      --load.server.rejection-rate=0.01 --load.server.bulk-failure-rate=0.02
+ *      --spring.boot.elasticsearch.bulk.updates.enabled=true
+ * </pre>
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Slf4j
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan({"spring.boot.elasticsearch.service", "spring.boot.elasticsearch.stash"})
+public class LoadHarness {
+
+    private static final String INDEX = "benchmark";
+
+    private static final String TYPE = "doc";
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        LoadProperties load = Binder.get(environment).bind("load", LoadProperties.class).orElseGet(LoadProperties::new);
+        try (FakeElasticsearchServer server = new FakeElasticsearchServer(load.getServer()).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadHarness.class)
+                     .web(WebApplicationType.NONE)
+                     .bannerMode(Banner.Mode.OFF)
+                     .properties("spring.boot.elasticsearch.rest.uris=" + server.getUri(),
+                             "spring.boot.elasticsearch.elasticsearch.initialize-indices=false")
+                     .run(args)) {
+            ElasticsearchService service = context.getBean(ElasticsearchService.class);
+            List<String> reports = new ArrayList<>();
+            reports.add(String.format("%-10s %10s %10s %10s %10s %10s %10s %10s %10s %10s",
+                    "operation", "calls", "ops/s", "failures", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (String operation : load.getOperations()) {
+                reports.add(run(operation, operation(operation, service, load), load));
+            }
+            String mode = load.getRate() > 0 ? String.format("open loop at %.1f calls/s", load.getRate())
+                    : "closed loop, percentiles omit the calls delayed by slow calls";
+            log.info("Elasticsearch service load of {} threads for {} per operation, {}\n{}\nserver requests {}, rejected requests {}, rejected bulk items {}",
+                    load.getThreads(), load.getDuration(), mode, String.join("\n", reports), server.getRequests(),
+                    server.getRejections(), server.getItemRejections());
+        }
+    }
+
+    /**
+     * One service call.
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * Call the service.
+         * @param random random of the calling thread.
+         * @return call outcome, one of the {@link ElasticsearchMetrics} outcomes.
+         */
+        String call(ThreadLocalRandom random);
+    }
+
+    private static Operation operation(String name, ElasticsearchService service, LoadProperties load) {
+        List<BenchmarkDocument> documents = Fixtures.documents(load.getBulkSize());
+        int hits = load.getServer().getHits();
+        switch (name) {
+            case "bulk":
+                return random -> outcome(!service.bulkResult(INDEX, TYPE, null, documents).hasFailures());
+            case "update":
+                return random -> {
+                    BenchmarkDocument document = documents.get(random.nextInt(documents.size()));
+                    return outcome(service.update(INDEX, TYPE, null, document.getId(), document));
+                };
+            case "search":
+                return random -> {
+                    service.search(INDEX, null, query(random), new PageVo(0, hits), BenchmarkDocument.class);
+                    return ElasticsearchMetrics.OUTCOME_SUCCESS;
+                };
+            case "msearch":
+                return random -> {
+                    List<BenchmarkQuery> queries = new ArrayList<>(load.getMsearchSize());
+                    for (int i = 0; i < load.getMsearchSize(); i++) {
+                        queries.add(query(random));
+                    }
+                    service.msearch(INDEX, null, queries, new PageVo(0, hits), BenchmarkDocument.class);
+                    return ElasticsearchMetrics.OUTCOME_SUCCESS;
+                };
+            case "scroll":
+                return random -> {
+                    service.scroll(INDEX, null, query(random), new PageVo(0, hits), BenchmarkDocument.class);
+                    return ElasticsearchMetrics.OUTCOME_SUCCESS;
+                };
+            case "delete":
+                return random -> outcome(service.delete(INDEX, TYPE, null, query(random)));
+            default:
+                throw new IllegalArgumentException("Unknown load operation " + name);
+        }
+    }
+
+    /**
+     * Random search entity, distinct queries keep identical search coalescing out of the measure.
+     */
+    private static BenchmarkQuery query(ThreadLocalRandom random) {
+        BenchmarkQuery query = Fixtures.query();
+        query.setStock(random.nextInt(1000));
+        return query;
+    }
+
+    private static String outcome(Boolean succeeded) {
+        return Boolean.TRUE.equals(succeeded) ? ElasticsearchMetrics.OUTCOME_SUCCESS : ElasticsearchMetrics.OUTCOME_FAILURE;
+    }
+
+    private static String run(String name, Operation operation, LoadProperties load) throws InterruptedException {
+        measure(operation, load.getThreads(), load.getRate(), load.getWarmup());
+        long started = System.nanoTime();
+        List<LatencyRecorder> recorders = measure(operation, load.getThreads(), load.getRate(), load.getDuration());
+        double seconds = (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1);
+        LatencyRecorder merged = LatencyRecorder.merge(recorders);
+        return String.format("%-10s %10d %10.1f %10d %10d %10.2f %10.2f %10.2f %10.2f %10.2f", name, merged.getCount(),
+                merged.getCount() / seconds, merged.getFailures(), merged.getErrors(), millis(merged.percentile(50)),
+                millis(merged.percentile(90)), millis(merged.percentile(99)), millis(merged.percentile(99.9)),
+                millis(merged.percentile(100)));
+    }
+
+    /**
+     * Call the operation from concurrent threads until the duration elapses. With a rate every thread
+     * owns an evenly spaced share of the schedule, waits for the send time of its next call and records
+     * the latency from that send time, a thread running behind sends at once and keeps the delay.
+     */
+    private static List<LatencyRecorder> measure(Operation operation, int threads, double rate, Duration duration)
+            throws InterruptedException {
+        long begin = System.nanoTime();
+        long deadline = begin + duration.toNanos();
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * threads / rate) : 0L;
+        List<LatencyRecorder> recorders = new ArrayList<>(threads);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            long offset = interval * i / threads;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long scheduled = begin + offset;
+                while (System.nanoTime() < deadline) {
+                    long started = System.nanoTime();
+                    if (interval > 0) {
+                        if (scheduled >= deadline) {
+                            break;
+                        }
+                        while (started < scheduled) {
+                            LockSupport.parkNanos(scheduled - started);
+                            started = System.nanoTime();
+                        }
+                        started = scheduled;
+                        scheduled += interval;
+                    }
+                    String outcome;
+                    try {
+                        outcome = operation.call(random);
+                    } catch (RuntimeException e) {
+                        outcome = ElasticsearchMetrics.OUTCOME_ERROR;
+                    }
+                    recorder.record(outcome, System.nanoTime() - started);
+                }
+            }, "elasticsearch-load-" + i);
+            recorders.add(recorder);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorders;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
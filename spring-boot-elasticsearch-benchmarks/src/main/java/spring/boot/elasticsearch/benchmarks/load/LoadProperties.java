@@ -0,0 +1,62 @@
+package spring.boot.elasticsearch.benchmarks.load;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuration of the load harness, bound from the {@code load.*} command line arguments.
+ *
+ * @author OAK
+ * @since 2019/06/25 14:29:00 PM.
+ * @version 1.0
+ */
+@Data
+public class LoadProperties {
+
+    /**
+     * Service operations to load, one after another.
+     */
+    private List<String> operations = new ArrayList<>(Arrays.asList("bulk", "update", "search", "msearch", "scroll", "delete"));
+
+    /**
+     * Concurrent callers per operation.
+     */
+    private int threads = 16;
+
+    /**
+     * Open loop rate of calls per second spread over the callers, 0 runs closed loop. Closed loop callers
+     * send their next call when the previous one returns, so a stall delays the calls that would have been
+     * sent during it and the percentiles hide it. Open loop latency is measured from the scheduled send time.
+     */
+    private double rate;
+
+    /**
+     * Unmeasured warm up time per operation.
+     */
+    private Duration warmup = Duration.ofSeconds(3);
+
+    /**
+     * Measured time per operation.
+     */
+    private Duration duration = Duration.ofSeconds(10);
+
+    /**
+     * Entities per bulk call.
+     */
+    private int bulkSize = 100;
+
+    /**
+     * Search entities per multi search call.
+     */
+    private int msearchSize = 5;
+
+    /**
+     * Stand-in Elasticsearch server settings.
+     */
+    private FakeServerProperties server = new FakeServerProperties();
+
+}